@@ -0,0 +1,88 @@
+/**
+ * Class of attack profiles, holding everything about a monster that determines the damage of one of its hits.
+ * A profile never changes; a monster builds a new one when its damage or the weapon in its combat anchor changes,
+ * so a hit only has to read the damage instead of recomputing it.
+ *
+ * @invar	The hit damage is the sum of the base damage and the weapon bonus.
+ * 			| getHitDamage() == getBaseDamage() + getWeaponBonus()
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class AttackProfile {
+
+    /**
+     * Create a new attack profile with a base damage and a weapon bonus.
+     *
+     * @param 	baseDamage
+     * 			The damage of a hit without a weapon.
+     * @param 	weaponBonus
+     * 			The extra damage of a hit with the weapon in the combat anchor.
+     *
+     * @post	The base damage of this new profile is equal to the given base damage.
+     * 			| new.getBaseDamage() == baseDamage
+     *
+     * @post	The weapon bonus of this new profile is equal to the given weapon bonus.
+     * 			| new.getWeaponBonus() == weaponBonus
+     */
+    AttackProfile(int baseDamage, int weaponBonus) {
+        this.baseDamage = baseDamage;
+        this.weaponBonus = weaponBonus;
+        this.hitDamage = baseDamage + weaponBonus;
+    }
+
+    /**
+     * Returns the attack profile of the given monster as it is now.
+     * @param 	monster
+     * @return	A profile with the damage of the monster plus its strength bonus as base damage,
+     * 			and the damage of its combat weapon as weapon bonus.
+     * 			| new AttackProfile(monster.getDamage() + (monster.getStrength() - 5) / 3,
+     * 			|	(monster.getCombatWeapon() == null) ? 0 : monster.getCombatWeapon().getDamage())
+     */
+    static AttackProfile of(Monster monster) {
+        Weapon weapon = monster.getCombatWeapon();
+        return new AttackProfile(Monster.hitDamage(monster.getDamage(), monster.getStrength(), 0),
+                (weapon == null) ? 0 : weapon.getDamage());
+    }
+
+    /**
+     * Variable referencing the damage of a hit without a weapon.
+     */
+    private final int baseDamage;
+
+    /**
+     * Variable referencing the extra damage of a hit with the weapon in the combat anchor.
+     */
+    private final int weaponBonus;
+
+    /**
+     * Variable referencing the total damage of a hit.
+     */
+    private final int hitDamage;
+
+    /**
+     * Returns the damage of a hit without a weapon.
+     * @return baseDamage
+     */
+    public int getBaseDamage() {
+        return this.baseDamage;
+    }
+
+    /**
+     * Returns the extra damage of a hit with the weapon in the combat anchor.
+     * @return weaponBonus
+     */
+    public int getWeaponBonus() {
+        return this.weaponBonus;
+    }
+
+    /**
+     * Returns the total damage of a hit.
+     * @return hitDamage
+     */
+    public int getHitDamage() {
+        return this.hitDamage;
+    }
+}
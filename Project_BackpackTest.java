@@ -1,6 +1,9 @@
 import static org.junit.Assert.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -43,6 +46,144 @@ public class BackpackTest {
 		});
 	}
 	
+	@Test
+	public final void getWeight_NestedCase() {
+		Backpack outer = new Backpack(1, 1, 2, 1000, null);
+		Backpack inner = new Backpack(3, 2, 3, 500, null);
+		outer.equip(inner);
+		inner.equip(weaponBackpack);
+		assertEquals(8, outer.getWeight(), 0.25);
+		assertEquals(15, outer.getValue(), 0.25);
+		
+		inner.removeItem(weaponBackpack);
+		assertEquals(3, outer.getWeight(), 0.25);
+		assertEquals(5, outer.getValue(), 0.25);
+	}
+	
+	@Test
+	public final void getWeight_PurseCase() {
+		Backpack outer = new Backpack(1, 1, 2, 1000, null);
+		Purse purse = new Purse(1, 1, 1, null, 10, 0);
+		Purse otherPurse = new Purse(2, 1, 1, null, 10, 4);
+		outer.equip(purse);
+		otherPurse.transferDukats(purse, 2);
+		assertEquals(102, outer.getWeight(), 0.25);
+		assertEquals(5, outer.getValue(), 0.25);
+	}
+	
+	@Test
+	public final void setID_PurseSharedCase() {
+		Purse purse = new Purse(1000, 1, 1, null, 10, 0);
+		Purse otherPurse = new Purse(1000, 1, 1, null, 10, 0);
+		assertEquals(1597, purse.getID());
+		assertEquals(1597, otherPurse.getID());
+		assertEquals(2, Purse.getNbPursesWithID(1597));
+		assertFalse(purse.hasUniqueID());
+		
+		purse.setID(1L << 62);
+		assertEquals(4660046610375530309L, purse.getID());
+		assertEquals(1, Purse.getNbPursesWithID(1597));
+		assertTrue(otherPurse.hasUniqueID());
+		purse.setID(Long.MAX_VALUE);
+		assertEquals(7540113804746346429L, purse.getID());
+		purse.setID(Long.MIN_VALUE);
+		assertEquals(7540113804746346429L, purse.getID());
+		for (int i = 0; i < 200; i++)
+			new Purse(1, 1, 1, null, 10, 0);
+	}
+	
+	@Test
+	public final void getHighestWeightItem_RepositionCase() {
+		Backpack outer = new Backpack(1, 1, 2, 1000, null);
+		Backpack inner = new Backpack(3, 2, 3, 500, null);
+		Weapon weaponMedium = new Weapon(10, 4, 5, null);
+		outer.equipMany(inner, weaponMedium);
+		assertEquals(inner, outer.getLowestWeightItem());
+		assertEquals(weaponMedium, outer.getHighestWeightItem());
+		
+		inner.equip(weaponBackpack);
+		assertEquals(weaponMedium, outer.getLowestWeightItem());
+		assertEquals(inner, outer.getHighestWeightItem());
+		
+		outer.removeItem(inner);
+		assertEquals(weaponMedium, outer.getLowestWeightItem());
+		assertEquals(weaponMedium, outer.getHighestWeightItem());
+	}
+	
+	@Test
+	public final void equipMany_LegalCase() {
+		Weapon weaponLight = new Weapon(10, 0, 5, null);
+		backpackLegal.equipMany(weaponBackpack, weaponLight);
+		assertTrue(backpackLegal.hasAsEquipment(weaponBackpack));
+		assertTrue(backpackLegal.hasAsEquipment(weaponLight));
+		assertEquals(5, backpackLegal.getContentWeight(), 0.25);
+	}
+	
+	@Test
+	public final void equipMany_AllOrNothing() {
+		Weapon weaponLight = new Weapon(10, 1, 5, null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			backpackLegal.equipMany(weaponLight, weaponBackpack); //Too heavy together
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			backpackLegal.equipMany(weaponLight, weaponLight); //Same item twice
+		});
+		assertFalse(backpackLegal.hasAsEquipment(weaponLight));
+		assertEquals(null, weaponLight.getHolder());
+		assertEquals(0, backpackLegal.getContentWeight(), 0.25);
+	}
+	
+	@Test
+	public final void getItemsWithWeightBetween_LegalCase() {
+		Backpack pack = new Backpack(1, 1, 2, 1000, null);
+		Weapon weaponLight = new Weapon(10, 1, 5, null);
+		Weapon weaponMedium = new Weapon(10, 3, 5, null);
+		pack.equipMany(weaponLight, weaponMedium, weaponBackpack);
+		assertEquals(2, pack.getItemsWithWeightBetween(2, 5).size());
+		assertTrue(pack.getItemsWithWeightBetween(2, 5).contains(weaponMedium));
+		assertFalse(pack.getItemsWithWeightBetween(2, 5).contains(weaponLight));
+	}
+	
+	@Test
+	public final void getItemsWorthMoreThan_PurseCase() {
+		Backpack pack = new Backpack(1, 1, 2, 1000, null);
+		Purse purse = new Purse(1, 1, 1, null, 10, 0);
+		Purse otherPurse = new Purse(2, 1, 1, null, 10, 8);
+		pack.equipMany(purse, weaponBackpack);
+		assertFalse(pack.getItemsWorthMoreThan(5).contains(purse));
+		
+		otherPurse.transferDukats(purse, 8);
+		assertTrue(pack.getItemsWorthMoreThan(5).contains(purse));
+		assertEquals(purse, pack.getItemsWithValueBetween(9, 9).iterator().next());
+		assertEquals(purse, pack.getHighestWeightItem());
+	}
+	
+	@Test
+	public final void streamAllItems_ParallelCase() {
+		Backpack outer = new Backpack(1, 0, 0, 1000, null);
+		Backpack inner = new Backpack(3, 0, 0, 1000, null);
+		outer.equip(inner);
+		for (int i = 0; i < 100; i++) {
+			inner.equip(new Weapon(1, 1, 1, null));
+			outer.equip(new Weapon(1, 1, 1, null));
+		}
+		assertEquals(201, outer.streamAllItems().parallel().count());
+		assertEquals(201, outer.streamAllItemIDs().parallel().distinct().count());
+	}
+	
+	@Test
+	public final void equip_throws_Cycle() {
+		Backpack inner = new Backpack(3, 0, 0, 1000, null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			backpackLegal.equip(backpackLegal);
+		});
+		
+		backpackLegal.equip(inner);
+		assertThrows(IllegalArgumentException.class, () -> {
+			inner.equip(backpackLegal);
+		});
+	}
+	
 	@Test
 	public final void removeItem_LegalCase() {
 		backpackLegal.equip(weaponBackpack);
@@ -60,5 +201,33 @@ public class BackpackTest {
 			backpackLegal.removeItem(weaponHeavy);
 		});
 	}
+	
+	@Test
+	public final void concurrentBackpack_CapacityCase() {
+		ConcurrentBackpack stash = new ConcurrentBackpack(7, 1, 1, 1000);
+		AtomicInteger nbEquipped = new AtomicInteger();
+		IntStream.range(0, 400).parallel().forEach(i -> {
+			try {
+				stash.equip(new Weapon(1, 5, 5, null));
+				nbEquipped.incrementAndGet();
+			} catch (IllegalArgumentException exception) {
+			}
+		});
+		assertEquals(200, nbEquipped.get());
+		assertEquals(200, stash.getContents().size());
+		assertEquals(1000, stash.getContentWeight(), 0.001);
+		assertEquals(201, stash.getValue(), 0.001);
+		Item lightest = stash.getLowestWeightItem();
+		stash.removeItem(lightest);
+		assertNull(lightest.getHolder());
+		assertFalse(stash.hasAsEquipment(lightest));
+		assertEquals(995, stash.getContentWeight(), 0.001);
+		assertThrows(IllegalArgumentException.class, () -> {
+			backpackLegal.equip(stash);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			stash.setHolder(backpackLegal);
+		});
+	}
 
 }
@@ -0,0 +1,212 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Class of discrete-event simulators of battles between the monsters of a MonsterPool.
+ * A monster that is engaged attacks its target at regular intervals; every attack is an event on a shared timeline,
+ * so any number of fights interleave in the order of their attacks. Events are kept in an EventQueue,
+ * so scheduling and dispatching an attack costs O(log n) in the number of pending attacks and creates no objects.
+ * Every attack draws one roll and follows the rules of the method hitOtherMonster() of Monster.
+ * A monster stops attacking when it dies or when its target dies.
+ *
+ * @invar	The current time never decreases.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class BattleSimulator {
+
+    /**
+     * Create a new simulator of battles between the monsters of the given pool, at time zero and with no engagements.
+     *
+     * @param 	pool
+     * 			The pool whose hitpoints are lowered by the attacks.
+     * @param 	random
+     * 			The generator from which the rolls of the attacks are drawn.
+     *
+     * @post	| new.getTime() == 0
+     *
+     * @throws	IllegalArgumentException
+     * 			The given pool or generator is null.
+     */
+    public BattleSimulator(MonsterPool pool, RandomGenerator random) throws IllegalArgumentException {
+        if ((pool == null) || (random == null))
+            throw new IllegalArgumentException();
+        this.pool = pool;
+        this.random = random;
+        this.events = new EventQueue(pool.size());
+        this.targets = new int[pool.size()];
+        this.intervals = new int[pool.size()];
+        Arrays.fill(this.targets, NO_TARGET);
+    }
+
+    /**
+     * Variable referencing the target of a monster that is not engaged.
+     */
+    public static final int NO_TARGET = -1;
+
+    /**
+     * Variable referencing the pool whose hitpoints are lowered by the attacks.
+     */
+    private final MonsterPool pool;
+
+    /**
+     * Variable referencing the generator from which the rolls of the attacks are drawn.
+     */
+    private final RandomGenerator random;
+
+    /**
+     * Variable referencing the pending attacks, one for every engaged monster.
+     */
+    private final EventQueue events;
+
+    /**
+     * Variable referencing the target of every monster of the pool, or NO_TARGET if it is not engaged.
+     */
+    private int[] targets;
+
+    /**
+     * Variable referencing the time between two attacks of every engaged monster.
+     */
+    private int[] intervals;
+
+    /**
+     * Variable referencing the current time of the simulation.
+     */
+    private long time;
+
+    /**
+     * Variable referencing the number of attacks made so far.
+     */
+    private long nbAttacks;
+
+    /**
+     * Returns the current time of the simulation.
+     * @return time
+     */
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * Returns the number of attacks made so far.
+     * @return nbAttacks
+     */
+    public long getNbAttacks() {
+        return this.nbAttacks;
+    }
+
+    /**
+     * Returns the number of engaged monsters, which is the number of pending attacks.
+     */
+    public int getNbEngaged() {
+        return this.events.size();
+    }
+
+    /**
+     * Returns the target of the monster at the given index.
+     * @param 	index
+     * @return	The index of the target, or NO_TARGET if the monster is not engaged.
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			The given index is not the index of a monster of the pool.
+     */
+    public int getTarget(int index) throws IndexOutOfBoundsException {
+        this.checkIndex(index);
+        return (index < this.targets.length) ? this.targets[index] : NO_TARGET;
+    }
+
+    /**
+     * Method to let a monster attack a target at regular intervals, starting at the given time.
+     * A monster that is already engaged switches to the new target and interval, keeping the time of its next attack.
+     *
+     * @param 	attacker
+     * @param 	target
+     * @param 	start
+     * 			The time of the first attack.
+     * @param 	interval
+     * 			The time between two attacks.
+     *
+     * @post	| new.getTarget(attacker) == target
+     *
+     * @throws	IllegalArgumentException
+     * 			The monster attacks itself, one of the monsters has died, the interval is not positive,
+     * 			or the first attack would lie in the past.
+     * 			| (attacker == target) || pool.hasDied(attacker) || pool.hasDied(target) || (interval <= 0) || (start < getTime())
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			One of the indices is not the index of a monster of the pool.
+     */
+    public void engage(int attacker, int target, long start, int interval) throws IllegalArgumentException, IndexOutOfBoundsException {
+        this.checkIndex(attacker);
+        this.checkIndex(target);
+        if ((attacker == target) || this.pool.hasDied(attacker) || this.pool.hasDied(target) || (interval <= 0) || (start < this.time))
+            throw new IllegalArgumentException();
+        if (this.targets.length < this.pool.size()) {
+            int length = this.targets.length;
+            this.targets = Arrays.copyOf(this.targets, this.pool.size());
+            this.intervals = Arrays.copyOf(this.intervals, this.pool.size());
+            Arrays.fill(this.targets, length, this.targets.length, NO_TARGET);
+        }
+        boolean engaged = this.targets[attacker] != NO_TARGET;
+        this.targets[attacker] = target;
+        this.intervals[attacker] = interval;
+        if (!engaged)
+            this.events.add(start, attacker);
+    }
+
+    /**
+     * Method to play all attacks up to and including the given time.
+     * An attack of a monster whose target has died is dropped, and the monster is no longer engaged.
+     *
+     * @param 	until
+     * @return	The number of attacks that killed their target.
+     *
+     * @post	The current time is the given time, unless it lay in the past.
+     * 			| new.getTime() == Math.max(getTime(), until)
+     *
+     * @post	Every attack scheduled up to and including the given time has been played, and every
+     * 			monster that survived it and whose target is alive attacks again after its interval.
+     */
+    public int run(long until) {
+        MonsterPool pool = this.pool;
+        int kills = 0;
+        while (!this.events.isEmpty() && (this.events.peekTime() <= until)) {
+            this.time = this.events.peekTime();
+            int attacker = this.events.poll();
+            int target = this.targets[attacker];
+            int attackerHitpoints = pool.hitpointsAt(attacker);
+            int targetHitpoints = pool.hitpointsAt(target);
+            if ((attackerHitpoints == 0) || (targetHitpoints == 0)) {
+                this.targets[attacker] = NO_TARGET;
+                continue;
+            }
+            this.nbAttacks++;
+            targetHitpoints = pool.hitpointsAfterHit(attacker, attackerHitpoints, target, targetHitpoints,
+                    this.random.nextInt(0, Monster.NB_ROLLS));
+            pool.setHitpointsAt(target, targetHitpoints);
+            if (targetHitpoints == 0) {
+                kills++;
+                this.targets[attacker] = NO_TARGET;
+                continue;
+            }
+            this.events.add(this.time + this.intervals[attacker], attacker);
+        }
+        this.time = Math.max(this.time, until);
+        return kills;
+    }
+
+    /**
+     * Checks that the given index is the index of a monster of the pool.
+     * @param 	index
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			| (index < 0) || (index >= pool.size())
+     */
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if ((index < 0) || (index >= this.pool.size()))
+            throw new IndexOutOfBoundsException(index);
+    }
+}
@@ -0,0 +1,47 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BattleSimulatorTest {
+
+	private Monster first;
+	private Monster second;
+	private MonsterPool pool;
+	private BattleSimulator simulator;
+
+	@Before
+	public void setUp() throws Exception {
+		first = Combatants.newCombatant("Ork", 4, 7, 30, 10);
+		second = Combatants.newCombatant("Elf", 3, 5, 25, 10);
+		pool = MonsterPool.fromMonsters(first, second, first, second);
+		simulator = new BattleSimulator(pool, new SplittableRandom(23));
+	}
+
+	@Test
+	public final void run_SameAsHitCase() {
+		simulator.engage(0, 1, 0, 10);
+		simulator.engage(1, 0, 5, 10);
+		simulator.run(1000);
+		assertEquals(1000, simulator.getTime());
+		SplittableRandom random = new SplittableRandom(23);
+		for (int time = 0; time <= 1000; time += 10) {
+			if ((first.getHitpoints() == 0) || (second.getHitpoints() == 0))
+				break;
+			first.hitOtherMonster(second, random);
+			if (second.getHitpoints() > 0)
+				second.hitOtherMonster(first, random);
+		}
+		assertEquals(first.getHitpoints(), pool.getHitpoints(0));
+		assertEquals(second.getHitpoints(), pool.getHitpoints(1));
+		assertEquals(pool.getHitpoints(2), first.getMaxHitpoints());
+	}
+
+	@Test
+	public final void engage_throws_Self() {
+		assertThrows(IllegalArgumentException.class, () -> simulator.engage(3, 3, 0, 10));
+	}
+}
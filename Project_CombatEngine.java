@@ -0,0 +1,473 @@
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Class of engines that resolve batches of fights between pairs of monsters on all cores.
+ * In every round of a fight the first monster hits the second, and then, if the second is still alive, the second hits the first.
+ * A fight ends when one of the monsters has died, or in a draw when the maximum number of rounds is reached.
+ * The fights of a batch are spread over a fork/join pool; every fight only touches its own two monsters
+ * and its own slots in the result arrays, so no state is shared between the workers.
+ * Batches resolved with a master seed draw the rolls of every fight from its own generator, derived from the seed
+ * and the position of the fight only, so they give the same results on any number of threads and single fights can be replayed.
+ *
+ * @invar	The maximum number of rounds of a fight is positive.
+ * 			| getMaxRounds() > 0
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class CombatEngine {
+
+    /**
+     * Create a new combat engine that resolves fights in the common fork/join pool.
+     *
+     * @param 	maxRounds
+     * 			The number of rounds after which a fight ends in a draw.
+     *
+     * @effect	The engine is created as with the given maximum number of rounds and the common pool.
+     * 			| this(maxRounds, ForkJoinPool.commonPool())
+     */
+    public CombatEngine(int maxRounds) throws IllegalArgumentException {
+        this(maxRounds, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new combat engine that resolves fights in the given fork/join pool.
+     *
+     * @param 	maxRounds
+     * 			The number of rounds after which a fight ends in a draw.
+     * @param 	pool
+     * 			The pool in which the fights are resolved.
+     *
+     * @post	The maximum number of rounds of this new engine is equal to the given maximum number of rounds.
+     * 			| new.getMaxRounds() == maxRounds
+     *
+     * @throws	IllegalArgumentException
+     * 			The given maximum number of rounds is not positive or the given pool is null.
+     * 			| (maxRounds <= 0) || (pool == null)
+     */
+    public CombatEngine(int maxRounds, ForkJoinPool pool) throws IllegalArgumentException {
+        if ((maxRounds <= 0) || (pool == null))
+            throw new IllegalArgumentException();
+        this.maxRounds = maxRounds;
+        this.pool = pool;
+    }
+
+    /**
+     * Variable referencing the number of rounds after which a fight ends in a draw.
+     */
+    private final int maxRounds;
+
+    /**
+     * Variable referencing the pool in which the fights are resolved.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Returns the number of rounds after which a fight ends in a draw.
+     * @return maxRounds
+     */
+    public int getMaxRounds() {
+        return this.maxRounds;
+    }
+
+    //RESOLVING
+    /**
+     * Variable referencing the number of fights below which a task resolves its fights itself instead of splitting.
+     */
+    private static final int MIN_FIGHTS_PER_TASK = 64;
+
+    /**
+     * Resolves the fight between every monster in the first array and the monster at the same position in the second array.
+     * The hitpoints of the monsters are lowered as the fights go on.
+     *
+     * @param 	first
+     * 			The monsters that hit first in each fight.
+     * @param 	second
+     * 			The monsters that hit second in each fight.
+     * @return	The results of all fights, at the same positions as the pairs.
+     *
+     * @effect	Every fight is resolved as in the method resolve(), with rolls drawn from the random generator of the current thread.
+     * 			| for (i in 0..first.length-1)
+     * 			| 	resolve(first[i], second[i], result, i, ThreadLocalRandom.current())
+     *
+     * @throws	IllegalArgumentException
+     * 			The arrays are null or have a different length, or a monster is null or appears in more than one place.
+     * 			| (first == null) || (second == null) || (first.length != second.length)
+     * 			| || (some monster is null) || (some monster appears twice)
+     */
+    public Results resolveAll(Monster[] first, Monster[] second) throws IllegalArgumentException {
+        return this.resolveAll(first, second, false, 0);
+    }
+
+    /**
+     * Resolves the fight between every monster in the first array and the monster at the same position in the second array,
+     * drawing the rolls of every fight from a generator derived from the given master seed.
+     * The same monsters and master seed always give the same results, whatever the number of threads.
+     *
+     * @param 	first
+     * 			The monsters that hit first in each fight.
+     * @param 	second
+     * 			The monsters that hit second in each fight.
+     * @param 	masterSeed
+     * 			The seed from which the generators of all fights are derived.
+     * @return	The results of all fights, at the same positions as the pairs.
+     *
+     * @effect	Every fight is resolved as in the method resolve(), with its own generator.
+     * 			| for (i in 0..first.length-1)
+     * 			| 	resolve(first[i], second[i], result, i, fightRandom(masterSeed, i))
+     *
+     * @throws	IllegalArgumentException
+     * 			The arrays are null or have a different length, or a monster is null or appears in more than one place.
+     * 			| (first == null) || (second == null) || (first.length != second.length)
+     * 			| || (some monster is null) || (some monster appears twice)
+     */
+    public Results resolveAll(Monster[] first, Monster[] second, long masterSeed) throws IllegalArgumentException {
+        return this.resolveAll(first, second, true, masterSeed);
+    }
+
+    /**
+     * Replays a single fight of a batch that was resolved with the given master seed.
+     * The monsters must be in the same state as when the batch was resolved.
+     *
+     * @param 	first
+     * 			The monster that hits first.
+     * @param 	second
+     * 			The monster that hits second.
+     * @param 	masterSeed
+     * 			The master seed of the batch.
+     * @param 	index
+     * 			The position of the fight in the batch.
+     * @return	The result of the fight, at position zero.
+     *
+     * @effect	The fight is resolved with the generator it had in the batch.
+     * 			| resolve(first, second, result, 0, fightRandom(masterSeed, index))
+     *
+     * @throws	IllegalArgumentException
+     * 			A monster is null, or both monsters are the same.
+     * 			| (first == null) || (second == null) || (first == second)
+     */
+    public Results replay(Monster first, Monster second, long masterSeed, int index) throws IllegalArgumentException {
+        if ((first == null) || (second == null) || (first == second))
+            throw new IllegalArgumentException();
+        Results results = new Results(1);
+        this.resolve(first, second, results, 0, fightRandom(masterSeed, index));
+        return results;
+    }
+
+    /**
+     * Returns the generator from which the rolls of the fight at the given position of a seeded batch are drawn.
+     * The seed of the generator is a well-spread hash of the master seed and the position,
+     * so the generators of neighbouring fights do not produce overlapping sequences.
+     * @param 	masterSeed
+     * @param 	index
+     * @return	A SplittableRandom seeded with the 64-bit finalizer of MurmurHash3 applied to the master seed
+     * 			advanced by the position times the golden ratio.
+     */
+    static SplittableRandom fightRandom(long masterSeed, int index) {
+        long seed = masterSeed + (index + 1) * 0x9e3779b97f4a7c15L;
+        seed = (seed ^ (seed >>> 33)) * 0xff51afd7ed558ccdL;
+        seed = (seed ^ (seed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return new SplittableRandom(seed ^ (seed >>> 33));
+    }
+
+    /**
+     * Resolves a batch of fights, with or without a master seed.
+     * @param 	first
+     * @param 	second
+     * @param 	seeded
+     * 			Whether the rolls are drawn from generators derived from the master seed.
+     * @param 	masterSeed
+     * @return	The results of all fights.
+     */
+    private Results resolveAll(Monster[] first, Monster[] second, boolean seeded, long masterSeed) throws IllegalArgumentException {
+        if ((first == null) || (second == null) || (first.length != second.length))
+            throw new IllegalArgumentException();
+        Set<Monster> seen = Collections.newSetFromMap(new IdentityHashMap<>(4 * first.length));
+        for (int i = 0; i < first.length; i++) {
+            if ((first[i] == null) || (second[i] == null) || !seen.add(first[i]) || !seen.add(second[i]))
+                throw new IllegalArgumentException("Every monster must be in exactly one fight of a batch.");
+        }
+        Results results = new Results(first.length);
+        int threshold = Math.max(MIN_FIGHTS_PER_TASK, first.length / (8 * this.pool.getParallelism()));
+        this.pool.invoke(new FightTask(first, second, results, 0, first.length, threshold, seeded, masterSeed));
+        return results;
+    }
+
+    /**
+     * Resolves the fight between two monsters and stores its result.
+     * @param 	first
+     * 			The monster that hits first in every round.
+     * @param 	second
+     * 			The monster that hits second in every round.
+     * @param 	results
+     * @param 	index
+     * 			The position of the fight in the results.
+     * @param 	random
+     * 			The generator from which the rolls of all hits are drawn.
+     *
+     * @post	The winner is the monster that is still alive when the other has died, or DRAW if both are alive
+     * 			after the maximum number of rounds or both had died before the fight.
+     *
+     * @post	The number of rounds is the number of rounds that were started, which is zero if a monster had died before the fight.
+     *
+     * @post	The remaining hitpoints of both monsters are stored.
+     * 			| results.getFirstHitpoints(index) == first.getHitpoints()
+     * 			| && results.getSecondHitpoints(index) == second.getHitpoints()
+     */
+    private void resolve(Monster first, Monster second, Results results, int index, RandomGenerator random) {
+        byte winner = DRAW;
+        int round = 0;
+        if (first.hasDied() || second.hasDied()) {
+            if (!first.hasDied())
+                winner = FIRST;
+            else if (!second.hasDied())
+                winner = SECOND;
+        } else {
+            while (round < this.maxRounds) {
+                round++;
+                if (first.hitOtherMonster(second, random) == HitOutcome.KILL) {
+                    winner = FIRST;
+                    break;
+                }
+                if (second.hitOtherMonster(first, random) == HitOutcome.KILL) {
+                    winner = SECOND;
+                    break;
+                }
+            }
+        }
+        results.winners[index] = winner;
+        results.rounds[index] = round;
+        results.firstHitpoints[index] = first.getHitpoints();
+        results.secondHitpoints[index] = second.getHitpoints();
+    }
+
+    /**
+     * Class of fork/join tasks that resolve a range of the fights of a batch.
+     */
+    private final class FightTask extends RecursiveAction {
+
+        /**
+         * Variable referencing the version of the serialized form of the task.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Create a new task for the fights from the given start up to, but not including, the given end.
+         * @param 	first
+         * @param 	second
+         * @param 	results
+         * @param 	start
+         * @param 	end
+         * @param 	threshold
+         * 			The number of fights below which the task resolves its fights itself.
+         * @param 	seeded
+         * 			Whether the rolls are drawn from generators derived from the master seed.
+         * @param 	masterSeed
+         */
+        FightTask(Monster[] first, Monster[] second, Results results, int start, int end, int threshold, boolean seeded, long masterSeed) {
+            this.first = first;
+            this.second = second;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+            this.seeded = seeded;
+            this.masterSeed = masterSeed;
+        }
+
+        /**
+         * Variable referencing the monsters that hit first in the fights of the batch.
+         */
+        private final Monster[] first;
+
+        /**
+         * Variable referencing the monsters that hit second in the fights of the batch.
+         */
+        private final Monster[] second;
+
+        /**
+         * Variable referencing the results of the batch.
+         */
+        private final Results results;
+
+        /**
+         * Variable referencing the position of the first fight of this task.
+         */
+        private final int start;
+
+        /**
+         * Variable referencing the position after the last fight of this task.
+         */
+        private final int end;
+
+        /**
+         * Variable referencing the number of fights below which a task resolves its fights itself.
+         */
+        private final int threshold;
+
+        /**
+         * Variable registering whether the rolls are drawn from generators derived from the master seed.
+         */
+        private final boolean seeded;
+
+        /**
+         * Variable referencing the seed from which the generators of all fights are derived.
+         */
+        private final long masterSeed;
+
+        /**
+         * Resolves the fights of this task, splitting it in two halves as long as it is larger than the threshold.
+         */
+        @Override
+        protected void compute() {
+            if (this.end - this.start <= this.threshold) {
+                for (int i = this.start; i < this.end; i++) {
+                    RandomGenerator random = this.seeded ? fightRandom(this.masterSeed, i) : ThreadLocalRandom.current();
+                    resolve(this.first[i], this.second[i], this.results, i, random);
+                }
+            } else {
+                int middle = (this.start + this.end) >>> 1;
+                invokeAll(new FightTask(this.first, this.second, this.results, this.start, middle, this.threshold, this.seeded, this.masterSeed),
+                        new FightTask(this.first, this.second, this.results, middle, this.end, this.threshold, this.seeded, this.masterSeed));
+            }
+        }
+    }
+
+    //RESULTS
+    /**
+     * Variable referencing the winner code of a fight won by the monster that hits first.
+     */
+    public static final byte FIRST = 0;
+
+    /**
+     * Variable referencing the winner code of a fight won by the monster that hits second.
+     */
+    public static final byte SECOND = 1;
+
+    /**
+     * Variable referencing the winner code of a fight that ended without a winner.
+     */
+    public static final byte DRAW = -1;
+
+    /**
+     * Class of results of a batch of fights, stored in primitive arrays indexed by the position of the fight.
+     */
+    public static final class Results {
+
+        /**
+         * Create new, empty results for the given number of fights.
+         * @param 	nbFights
+         */
+        Results(int nbFights) {
+            this.winners = new byte[nbFights];
+            this.rounds = new int[nbFights];
+            this.firstHitpoints = new int[nbFights];
+            this.secondHitpoints = new int[nbFights];
+        }
+
+        /**
+         * Variable referencing the winner code of every fight.
+         */
+        final byte[] winners;
+
+        /**
+         * Variable referencing the number of rounds of every fight.
+         */
+        final int[] rounds;
+
+        /**
+         * Variable referencing the remaining hitpoints of the monster that hits first, for every fight.
+         */
+        final int[] firstHitpoints;
+
+        /**
+         * Variable referencing the remaining hitpoints of the monster that hits second, for every fight.
+         */
+        final int[] secondHitpoints;
+
+        /**
+         * Returns the number of fights.
+         * @return winners.length
+         */
+        public int size() {
+            return this.winners.length;
+        }
+
+        /**
+         * Returns the winner code of the fight at the given position.
+         * @param 	index
+         * @return	FIRST, SECOND or DRAW.
+         */
+        public byte getWinner(int index) {
+            return this.winners[index];
+        }
+
+        /**
+         * Returns the number of rounds of the fight at the given position.
+         * @param 	index
+         * @return	rounds[index]
+         */
+        public int getRounds(int index) {
+            return this.rounds[index];
+        }
+
+        /**
+         * Returns the hitpoints the monster that hits first had left after the fight at the given position.
+         * @param 	index
+         * @return	firstHitpoints[index]
+         */
+        public int getFirstHitpoints(int index) {
+            return this.firstHitpoints[index];
+        }
+
+        /**
+         * Returns the hitpoints the monster that hits second had left after the fight at the given position.
+         * @param 	index
+         * @return	secondHitpoints[index]
+         */
+        public int getSecondHitpoints(int index) {
+            return this.secondHitpoints[index];
+        }
+
+        /**
+         * Returns the winner codes of all fights.
+         * @return	A copy of the winner codes.
+         */
+        public byte[] getWinners() {
+            return this.winners.clone();
+        }
+
+        /**
+         * Returns the number of rounds of all fights.
+         * @return	A copy of the numbers of rounds.
+         */
+        public int[] getRounds() {
+            return this.rounds.clone();
+        }
+
+        /**
+         * Returns the remaining hitpoints of the monsters that hit first, for all fights.
+         * @return	A copy of the remaining hitpoints.
+         */
+        public int[] getFirstHitpoints() {
+            return this.firstHitpoints.clone();
+        }
+
+        /**
+         * Returns the remaining hitpoints of the monsters that hit second, for all fights.
+         * @return	A copy of the remaining hitpoints.
+         */
+        public int[] getSecondHitpoints() {
+            return this.secondHitpoints.clone();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class CombatEngineTest {
+
+	/**
+	 * Returns the given number of new combatants with the given name, damage and maximum hitpoints.
+	 */
+	private static Monster[] newCombatants(String name, int damage, int maxHitpoints, int nbCombatants) {
+		Monster[] combatants = new Monster[nbCombatants];
+		for (int i = 0; i < nbCombatants; i++)
+			combatants[i] = Combatants.newCombatant(name, damage, 1, maxHitpoints, 10);
+		return combatants;
+	}
+
+	@Test
+	public final void resolveAll_LegalCase() {
+		Monster[] first = newCombatants("Ork", 20, 10, 300);
+		Monster[] second = newCombatants("Elf", 20, 10, 300);
+		CombatEngine.Results results = new CombatEngine(1000).resolveAll(first, second);
+		for (int i = 0; i < first.length; i++) {
+			assertTrue(results.getRounds(i) >= 1);
+			if (results.getWinner(i) == CombatEngine.FIRST) {
+				assertEquals(0, results.getSecondHitpoints(i));
+				assertTrue(results.getFirstHitpoints(i) > 0);
+			} else {
+				assertEquals(CombatEngine.SECOND, results.getWinner(i));
+				assertEquals(0, results.getFirstHitpoints(i));
+			}
+		}
+	}
+
+	@Test
+	public final void resolveAll_throws_SameMonster() {
+		Monster[] first = newCombatants("Ork", 20, 10, 3);
+		assertThrows(IllegalArgumentException.class, () -> new CombatEngine(10).resolveAll(first, first));
+	}
+
+	@Test
+	public final void resolveAll_SeededCase() {
+		CombatEngine.Results[] results = new CombatEngine.Results[2];
+		int[] parallelism = {1, 4};
+		for (int run = 0; run < 2; run++) {
+			ForkJoinPool pool = new ForkJoinPool(parallelism[run]);
+			results[run] = new CombatEngine(1000, pool).resolveAll(newCombatants("Ork", 3, 20, 500), newCombatants("Elf", 3, 20, 500), 42);
+			pool.shutdown();
+		}
+		assertArrayEquals(results[0].getRounds(), results[1].getRounds());
+		assertArrayEquals(results[0].getFirstHitpoints(), results[1].getFirstHitpoints());
+		assertArrayEquals(results[0].getSecondHitpoints(), results[1].getSecondHitpoints());
+	}
+
+	@Test
+	public final void replay_SeededCase() {
+		CombatEngine.Results results = new CombatEngine(1000).resolveAll(newCombatants("Ork", 3, 20, 20), newCombatants("Elf", 3, 20, 20), 42);
+		CombatEngine.Results replay = new CombatEngine(1000).replay(Combatants.newCombatant("Ork", 3, 1, 20, 10),
+				Combatants.newCombatant("Elf", 3, 1, 20, 10), 42, 17);
+		assertEquals(results.getRounds(17), replay.getRounds(0));
+		assertEquals(results.getWinner(17), replay.getWinner(0));
+	}
+}
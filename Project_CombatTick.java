@@ -0,0 +1,241 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Class of kernels that resolve one hit for each of many pairings of monsters in a MonsterPool at once.
+ * The statistics of a chunk of pairings are first gathered into small contiguous buffers, the hit formula of
+ * Monster.hitOtherMonster() is then applied to the buffers without any branches, and the new hitpoints are scattered back.
+ * The middle loop only does straight-line integer arithmetic over arrays, which the JIT compiler can unroll and vectorize.
+ * For the same rolls, the resulting hitpoints are identical to those of hitOtherMonster().
+ *
+ * @note	A kernel keeps its buffers between calls, so it must not be used by several threads at the same time.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class CombatTick {
+
+    /**
+     * Variable referencing the number of pairings gathered into the buffers at a time.
+     */
+    private static final int CHUNK = 1024;
+
+    /**
+     * Variable referencing the hitpoints of the attackers of a chunk.
+     */
+    private final int[] attackerHitpoints = new int[CHUNK];
+
+    /**
+     * Variable referencing the hit damage of the attackers of a chunk.
+     */
+    private final int[] hitDamage = new int[CHUNK];
+
+    /**
+     * Variable referencing the protection factors of the defenders of a chunk.
+     */
+    private final int[] defenderProtection = new int[CHUNK];
+
+    /**
+     * Variable referencing the hitpoints of the defenders of a chunk, replaced by their new hitpoints.
+     */
+    private final int[] defenderHitpoints = new int[CHUNK];
+
+    /**
+     * Variable referencing the maximum hitpoints of the defenders of a chunk.
+     */
+    private final int[] defenderMaxHitpoints = new int[CHUNK];
+
+    /**
+     * Variable referencing the rolls drawn for the last call that drew its own rolls.
+     */
+    private int[] rolls = new int[0];
+
+    /**
+     * Variable referencing, for every entry of the last pool, the number of the call in which it was last part of a pairing.
+     */
+    private int[] lastTick = new int[0];
+
+    /**
+     * Variable referencing the number of calls made to this kernel.
+     */
+    private int nbTicks;
+
+    /**
+     * Lets every attacker hit its defender once, with rolls drawn from the given generator in the order of the pairings.
+     *
+     * @param 	pool
+     * @param 	attackers
+     * 			The indices of the attacking entries.
+     * @param 	defenders
+     * 			The indices of the defending entries, at the position of their attacker.
+     * @param 	count
+     * 			The number of pairings.
+     * @param 	random
+     * @return	The number of hits that left their defender without hitpoints.
+     *
+     * @effect	The pairings are resolved with rolls drawn one by one from the generator.
+     * 			| tick(pool, attackers, defenders, rolls, count) with rolls[k] == random.nextInt(0, 31)
+     */
+    public int tick(MonsterPool pool, int[] attackers, int[] defenders, int count, RandomGenerator random)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (this.rolls.length < count)
+            this.rolls = new int[Math.max(count, 2 * this.rolls.length)];
+        int[] rolls = this.rolls;
+        for (int k = 0; k < count; k++)
+            rolls[k] = random.nextInt(0, Monster.NB_ROLLS);
+        return this.tick(pool, attackers, defenders, rolls, count);
+    }
+
+    /**
+     * Lets every attacker hit its defender once, with the given rolls.
+     *
+     * @param 	pool
+     * @param 	attackers
+     * 			The indices of the attacking entries.
+     * @param 	defenders
+     * 			The indices of the defending entries, at the position of their attacker.
+     * @param 	rolls
+     * 			The rolls of the hits, from 0 up to and including 30, at the position of their attacker.
+     * @param 	count
+     * 			The number of pairings.
+     * @return	The number of hits that left their defender without hitpoints.
+     *
+     * @post	Every defender takes the hit of its attacker as in the method hitOtherMonster() of Monster.
+     * 			| for (k in 0..count-1)
+     * 			| 	if (Monster.lands(rolls[k], pool.getHitpoints(attackers[k]), pool.getProtection(defenders[k])))
+     * 			| 		then new.pool.getHitpoints(defenders[k]) == Monster.hitpointsAfterDamage(pool.getHitpoints(defenders[k]),
+     * 			|			pool.getMaxHitpoints(defenders[k]), pool.getHitDamage(attackers[k]))
+     *
+     * @throws	IllegalArgumentException
+     * 			An entry is part of more than one pairing, so the result would depend on the order of the hits.
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			The count exceeds one of the arrays, or an index is not the index of an entry of the pool.
+     */
+    public int tick(MonsterPool pool, int[] attackers, int[] defenders, int[] rolls, int count)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if ((count < 0) || (count > attackers.length) || (count > defenders.length) || (count > rolls.length))
+            throw new IndexOutOfBoundsException(count);
+        this.checkDisjoint(pool, attackers, defenders, count);
+        int kills = 0;
+        for (int start = 0; start < count; start += CHUNK) {
+            int length = Math.min(CHUNK, count - start);
+            this.gather(pool, attackers, defenders, start, length);
+            kills += this.compute(rolls, start, length);
+            this.scatter(pool, defenders, start, length);
+        }
+        return kills;
+    }
+
+    /**
+     * Checks that no entry is part of more than one of the given pairings.
+     * @param 	pool
+     * @param 	attackers
+     * @param 	defenders
+     * @param 	count
+     *
+     * @throws	IllegalArgumentException
+     * 			An entry is part of more than one pairing.
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			An index is not the index of an entry of the pool.
+     */
+    private void checkDisjoint(MonsterPool pool, int[] attackers, int[] defenders, int count)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (this.lastTick.length < pool.size())
+            this.lastTick = new int[Math.max(pool.size(), 2 * this.lastTick.length)];
+        int tick = ++this.nbTicks;
+        if (tick == Integer.MAX_VALUE) {
+            Arrays.fill(this.lastTick, 0);
+            this.nbTicks = tick = 1;
+        }
+        for (int k = 0; k < count; k++) {
+            this.mark(pool, attackers[k], tick);
+            this.mark(pool, defenders[k], tick);
+        }
+    }
+
+    /**
+     * Marks the given entry as part of a pairing of the current call.
+     * @param 	pool
+     * @param 	index
+     * @param 	tick
+     * 			The number of the current call.
+     *
+     * @throws	IllegalArgumentException
+     * 			The entry was already marked in the current call.
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			The index is not the index of an entry of the pool.
+     */
+    private void mark(MonsterPool pool, int index, int tick) throws IllegalArgumentException, IndexOutOfBoundsException {
+        if ((index < 0) || (index >= pool.size()))
+            throw new IndexOutOfBoundsException(index);
+        if (this.lastTick[index] == tick)
+            throw new IllegalArgumentException("Entry " + index + " is part of more than one pairing.");
+        this.lastTick[index] = tick;
+    }
+
+    /**
+     * Method to copy the statistics of a chunk of pairings into the buffers.
+     * @param 	pool
+     * @param 	attackers
+     * @param 	defenders
+     * @param 	start
+     * 			The position of the first pairing of the chunk.
+     * @param 	length
+     * 			The number of pairings of the chunk.
+     */
+    private void gather(MonsterPool pool, int[] attackers, int[] defenders, int start, int length) {
+        for (int k = 0; k < length; k++) {
+            int attacker = attackers[start + k];
+            int defender = defenders[start + k];
+            this.attackerHitpoints[k] = pool.hitpointsAt(attacker);
+            this.hitDamage[k] = pool.hitDamageAt(attacker);
+            this.defenderProtection[k] = pool.protectionAt(defender);
+            this.defenderHitpoints[k] = pool.hitpointsAt(defender);
+            this.defenderMaxHitpoints[k] = pool.maxHitpointsAt(defender);
+        }
+    }
+
+    /**
+     * Method to apply the hit formula to the buffers, without branches.
+     * A hit lands when the roll limited to the hitpoints of the attacker exceeds the protection of the defender;
+     * the defender then loses the hit damage, and hitpoints that would become invalid are set to zero.
+     * @param 	rolls
+     * @param 	start
+     * 			The position of the first pairing of the chunk.
+     * @param 	length
+     * 			The number of pairings of the chunk.
+     * @return	The number of hits of the chunk that left their defender without hitpoints.
+     */
+    private int compute(int[] rolls, int start, int length) {
+        int kills = 0;
+        for (int k = 0; k < length; k++) {
+            int battlevalue = Math.min(rolls[start + k], this.attackerHitpoints[k]);
+            long landed = ((long) this.defenderProtection[k] - battlevalue) >>> 63;
+            long remaining = this.defenderHitpoints[k] - landed * this.hitDamage[k];
+            long invalid = ((remaining | (this.defenderMaxHitpoints[k] - remaining)) >>> 63);
+            int hitpoints = (int) (remaining & (invalid - 1));
+            this.defenderHitpoints[k] = hitpoints;
+            kills += (int) (landed & ((hitpoints - 1L) >>> 63));
+        }
+        return kills;
+    }
+
+    /**
+     * Method to copy the new hitpoints of the defenders of a chunk back into the pool.
+     * @param 	pool
+     * @param 	defenders
+     * @param 	start
+     * 			The position of the first pairing of the chunk.
+     * @param 	length
+     * 			The number of pairings of the chunk.
+     */
+    private void scatter(MonsterPool pool, int[] defenders, int start, int length) {
+        for (int k = 0; k < length; k++)
+            pool.setHitpointsAt(defenders[start + k], this.defenderHitpoints[k]);
+    }
+}
@@ -0,0 +1,52 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class CombatTickTest {
+
+	@Test
+	public final void tick_SameAsHitCase() {
+		int nbPairs = 3000;
+		Monster[] monsters = new Monster[2 * nbPairs];
+		SplittableRandom stats = new SplittableRandom(3);
+		int[] primes = {1, 2, 3, 5, 7, 11, 13};
+		for (int i = 0; i < monsters.length; i++)
+			monsters[i] = Combatants.newCombatant("Npc", stats.nextInt(1, 21), primes[stats.nextInt(primes.length)], stats.nextInt(1, 40),
+					stats.nextInt(1, 20));
+		MonsterPool pool = MonsterPool.fromMonsters(monsters);
+		int[] attackers = new int[nbPairs];
+		int[] defenders = new int[nbPairs];
+		for (int k = 0; k < nbPairs; k++) {
+			attackers[k] = 2 * k;
+			defenders[k] = 2 * k + 1;
+		}
+		CombatTick tick = new CombatTick();
+		SplittableRandom random = new SplittableRandom(11);
+		SplittableRandom tickRandom = new SplittableRandom(11);
+		for (int round = 0; round < 5; round++) {
+			int kills = 0;
+			for (int k = 0; k < nbPairs; k++) {
+				if (monsters[attackers[k]].hitOtherMonster(monsters[defenders[k]], random) == HitOutcome.KILL)
+					kills++;
+			}
+			assertEquals(kills, tick.tick(pool, attackers, defenders, nbPairs, tickRandom));
+			for (int i = 0; i < monsters.length; i++)
+				assertEquals(monsters[i].getHitpoints(), pool.getHitpoints(i));
+			int[] swap = attackers;
+			attackers = defenders;
+			defenders = swap;
+		}
+	}
+
+	@Test
+	public final void tick_throws_PairedTwice() {
+		MonsterPool pool = MonsterPool.fromMonsters(Combatants.newCombatant("Ork", 3, 1, 20, 10),
+				Combatants.newCombatant("Elf", 3, 1, 20, 10), Combatants.newCombatant("Npc", 3, 1, 20, 10));
+		CombatTick tick = new CombatTick();
+		int[] twice = {0, 0};
+		assertThrows(IllegalArgumentException.class, () -> tick.tick(pool, twice, new int[] {1, 2}, new int[] {5, 5}, 2));
+	}
+}
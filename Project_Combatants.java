@@ -0,0 +1,28 @@
+/**
+ * Class of fixtures shared by the tests of the combat classes.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+final class Combatants {
+
+	/**
+	 * Prevent the creation of fixture objects.
+	 */
+	private Combatants() {
+	}
+
+	/**
+	 * Returns a new monster with the given combat statistics, three anchors, a light weapon and a small backpack.
+	 * @param 	name
+	 * @param 	damage
+	 * @param 	protection
+	 * @param 	maxHitpoints
+	 * @param 	strength
+	 */
+	static Monster newCombatant(String name, int damage, int protection, int maxHitpoints, int strength) {
+		return new Monster(name, damage, protection, maxHitpoints, strength, 3, new Weapon(1, 1, 1, null), new Backpack(1, 1, 1, 5, null));
+	}
+}
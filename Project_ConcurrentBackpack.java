@@ -0,0 +1,426 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Class of backpacks that can be used by many threads at the same time, such as stashes shared by players and scripts.
+ * The contents are kept in concurrent skip lists ordered by weight and by value and in a concurrent identity index,
+ * so reads and iteration never block and see the contents as they were at some moment during the read.
+ * Capacity is reserved with a compare-and-set on the content weight before an item is stored, so two threads can never
+ * fill a backpack beyond its capacity. Changes to the same item are serialized on one of a fixed set of locks chosen by
+ * the identity of the item, so threads working on different items of the same backpack rarely wait for each other.
+ * A concurrent backpack is free-standing: it never has a holder, so no monster or other backpack has to be locked with it.
+ *
+ * @invar	A concurrent backpack has no holder.
+ * 			| getHolder() == null
+ *
+ * @invar	The content weight of a concurrent backpack never exceeds its capacity because of items added to it.
+ *
+ * @note	Items inside a concurrent backpack, such as nested backpacks or purses, are themselves not thread-safe
+ * 			and must be changed by one thread at a time.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public class ConcurrentBackpack extends Backpack {
+
+    /**
+     * Create a new concurrent backpack with an ID, weight, value and capacity, and without a holder.
+     *
+     * @param 	ID
+     * 			Identification number of the backpack.
+     * @param 	weight
+     * 			Weight of the backpack.
+     * @param 	value
+     * 			Value of the backpack.
+     * @param 	capacity
+     * 			Capacity of the backpack.
+     *
+     * @effect	The new backpack is initialised as a new backpack with given ID, weight, value and capacity and no holder.
+     * 			| super(ID, weight, value, capacity, null)
+     *
+     * @throws 	IllegalArgumentException
+     * 			The given weight or capacity is not valid.
+     */
+    public ConcurrentBackpack(long ID, float weight, double value, float capacity) throws IllegalArgumentException {
+        super(ID, weight, value, capacity, null);
+    }
+
+    //LOCKS
+    /**
+     * Variable referencing the number of locks over which the items of all concurrent backpacks are spread.
+     */
+    private static final int NB_STRIPES = 64;
+
+    /**
+     * Variable referencing the locks over which the items of all concurrent backpacks are spread.
+     * They are shared by all concurrent backpacks, so two backpacks trying to obtain the same item take the same lock.
+     */
+    private static final Object[] STRIPES = new Object[NB_STRIPES];
+
+    static {
+        for (int i = 0; i < NB_STRIPES; i++)
+            STRIPES[i] = new Object();
+    }
+
+    /**
+     * Returns the number of the lock that serializes changes to the given item.
+     * @param 	item
+     */
+    private static int stripeOf(Item item) {
+        int hash = System.identityHashCode(item);
+        return (hash ^ (hash >>> 16)) & (NB_STRIPES - 1);
+    }
+
+    //HOLDER
+    /**
+     * A concurrent backpack can never be given a holder.
+     * @return	| false
+     */
+    @Override
+    boolean isCarriable() {
+        return false;
+    }
+
+    /**
+     * Sets the holder of this backpack, which can only be null.
+     * @param 	holder
+     *
+     * @throws	IllegalArgumentException
+     * 			The given holder is not null.
+     * 			| holder != null
+     */
+    @Override
+    public void setHolder(ItemHolder holder) throws IllegalArgumentException {
+        if (holder != null)
+            throw new IllegalArgumentException("A concurrent backpack cannot be held.");
+        super.setHolder(null);
+    }
+
+    //CONTENTS
+    /**
+     * Variable referencing the contents of the backpack, ordered by weight.
+     */
+    private final ConcurrentSkipListMap<ContentKey, Item> contents = new ConcurrentSkipListMap<>(ContentKey.BY_WEIGHT);
+
+    /**
+     * Variable referencing the contents of the backpack, ordered by value.
+     */
+    private final ConcurrentSkipListMap<ContentKey, Item> contentsByValue = new ConcurrentSkipListMap<>(ContentKey.BY_VALUE);
+
+    /**
+     * Variable referencing the keys under which the items in the backpack are stored, indexed on the identity of the items.
+     */
+    private final Map<Item, ContentKey> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Variable referencing a read-only view of the contents of the backpack.
+     */
+    private final Collection<Item> contentsView = Collections.unmodifiableCollection(this.contents.values());
+
+    /**
+     * Variable referencing the sequence number for the next item stored in the backpack.
+     */
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    /**
+     * Method to equip an item in the backpack.
+     *
+     * @effect	If the backpack can obtain the item and the weight of the item can be reserved,
+     * 			the item is added to the contents and its holder is set to this backpack.
+     *
+     * @throws	IllegalArgumentException
+     * 			The item cannot be obtained by the backpack, or another thread filled the backpack first.
+     * 			| canObtain(item) == false
+     */
+    @Override
+    public void equip(Item item) throws IllegalArgumentException {
+        if ((item == null) || !item.isCarriable() || (item == this))
+            throw new IllegalArgumentException("Cannot add item to backpack.");
+        synchronized (STRIPES[stripeOf(item)]) {
+            if ((item.getHolder() != null) || !this.reserveWeight(item.getWeight()))
+                throw new IllegalArgumentException("Cannot add item to backpack.");
+            this.addContent(item);
+        }
+    }
+
+    /**
+     * A method to equip many items at once.
+     * The locks of all items are taken and the whole batch is checked before any item is added,
+     * so either all items are added or none are.
+     * @param	items
+     * 			The items to be equipped.
+     *
+     * @throws	IllegalArgumentException
+     * 			One of the items is null, cannot be carried, already has a holder, is this backpack or occurs more than once,
+     * 			or the total weight of the items cannot be reserved.
+     */
+    @Override
+    public void equipMany(Item... items) throws IllegalArgumentException {
+        int[] stripes = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            if ((items[i] == null) || !items[i].isCarriable() || (items[i] == this))
+                throw new IllegalArgumentException("Cannot add items to backpack.");
+            stripes[i] = stripeOf(items[i]);
+        }
+        this.equipManyLocked(items, Arrays.stream(stripes).sorted().distinct().toArray(), 0);
+    }
+
+    /**
+     * Method to take the remaining locks of a batch in increasing order, and then equip the batch.
+     * Taking the locks in a fixed order avoids deadlocks between batches.
+     * @param 	items
+     * @param 	stripes
+     * 			The numbers of the locks of the items, sorted and without duplicates.
+     * @param 	next
+     * 			The position of the next lock to take.
+     */
+    private void equipManyLocked(Item[] items, int[] stripes, int next) throws IllegalArgumentException {
+        if (next < stripes.length) {
+            synchronized (STRIPES[stripes[next]]) {
+                this.equipManyLocked(items, stripes, next + 1);
+            }
+            return;
+        }
+        Map<Item, Boolean> batch = new IdentityHashMap<>(items.length);
+        double totalWeight = 0;
+        for (Item item : items) {
+            if ((item.getHolder() != null) || (batch.put(item, Boolean.TRUE) != null))
+                throw new IllegalArgumentException("Cannot add items to backpack.");
+            totalWeight += item.getWeight();
+        }
+        if (!this.reserveWeight((float) totalWeight))
+            throw new IllegalArgumentException("Cannot add items to backpack.");
+        for (Item item : items)
+            this.addContent(item);
+    }
+
+    /**
+     * Checks whether an item can be obtained by the backpack.
+     * The answer may be out of date as soon as it is returned; equip() checks again while holding the lock of the item.
+     * @param	item
+     * @return	| (item != null) && item.isCarriable() && (item.getHolder() == null) && (item != this) && hasRoomFor(item.getWeight())
+     */
+    @Override
+    public boolean canObtain(Item item) {
+        return (item != null) && item.isCarriable() && (item.getHolder() == null) && (item != this) && this.hasRoomFor(item.getWeight());
+    }
+
+    /**
+     * Checks whether the backpack has room for the given weight.
+     * @param	weight
+     * @return	| (getCapacity() - getContentWeight()) >= weight
+     */
+    @Override
+    boolean hasRoomFor(float weight) {
+        return (this.getCapacity() - this.getContentWeight()) >= weight;
+    }
+
+    /**
+     * Checks if the given item is in the backpack, without blocking.
+     * @return	| keys.containsKey(item)
+     */
+    @Override
+    public boolean hasAsEquipment(Item item) {
+        return (item != null) && this.keys.containsKey(item);
+    }
+
+    /**
+     * Method to remove an item from the backpack.
+     * @param 	item
+     *
+     * @effect	The item is removed from the contents, its weight is released and its holder is set to null.
+     *
+     * @throws 	IllegalArgumentException
+     * 			The given item is not in the contents of the backpack.
+     * 			| hasAsEquipment(item) == false
+     */
+    @Override
+    public void removeItem(Item item) throws IllegalArgumentException {
+        if (item == null)
+            throw new IllegalArgumentException("Item is not in backpack.");
+        synchronized (STRIPES[stripeOf(item)]) {
+            ContentKey key = this.keys.remove(item);
+            if (key == null)
+                throw new IllegalArgumentException("Item is not in backpack.");
+            this.contents.remove(key);
+            this.contentsByValue.remove(key);
+            this.addWeight(-item.getWeight());
+            this.contentValue.add(-item.getValue());
+            item.setHolder(null);
+        }
+    }
+
+    /**
+     * Method to add an item whose weight has been reserved to the contents and make this backpack its holder.
+     * @param 	item
+     */
+    private void addContent(Item item) {
+        this.storeContent(item, this.nextSequence.getAndIncrement());
+        this.contentValue.add(item.getValue());
+        item.setHolder(this);
+    }
+
+    /**
+     * Method to store an item in the contents under a key with its current weight and value.
+     * @param 	item
+     * @param 	sequence
+     * 			The sequence number that orders the item among items of equal weight or value.
+     */
+    private void storeContent(Item item, long sequence) {
+        ContentKey key = new ContentKey(item.getWeight(), item.getValue(), sequence);
+        this.keys.put(item, key);
+        this.contents.put(key, item);
+        this.contentsByValue.put(key, item);
+    }
+
+    /**
+     * Method to update the backpack after the weight and/or value of one of its items has changed.
+     * @param 	item
+     * @param 	weightDelta
+     * @param 	valueDelta
+     *
+     * @effect	The item is re-positioned in the contents while holding its lock, and the totals are updated.
+     */
+    @Override
+    void contentChanged(Item item, float weightDelta, double valueDelta) {
+        synchronized (STRIPES[stripeOf(item)]) {
+            ContentKey key = this.keys.get(item);
+            if (((weightDelta != 0) || (valueDelta != 0)) && (key != null)) {
+                this.contents.remove(key);
+                this.contentsByValue.remove(key);
+                this.storeContent(item, key.sequence);
+            }
+            this.addWeight(weightDelta);
+            this.contentValue.add(valueDelta);
+        }
+    }
+
+    /**
+     * Returns a read-only, weakly consistent view of the contents of this backpack, ordered by weight.
+     * @return contentsView
+     */
+    @Override
+    public Collection<Item> getContents() {
+        return this.contentsView;
+    }
+
+    /**
+     * Returns a read-only, weakly consistent view of the items in this backpack with a weight in the given range.
+     * @param 	minWeight
+     * @param 	maxWeight
+     * @throws	IllegalArgumentException
+     * 			The lowest weight is higher than the highest weight.
+     * 			| minWeight > maxWeight
+     */
+    @Override
+    public Collection<Item> getItemsWithWeightBetween(float minWeight, float maxWeight) throws IllegalArgumentException {
+        return Collections.unmodifiableCollection(this.contents.subMap(
+                ContentKey.lowestWithWeight(minWeight), true, ContentKey.highestWithWeight(maxWeight), true).values());
+    }
+
+    /**
+     * Returns a read-only, weakly consistent view of the items in this backpack with a value in the given range.
+     * @param 	minValue
+     * @param 	maxValue
+     * @throws	IllegalArgumentException
+     * 			The lowest value is higher than the highest value.
+     * 			| minValue > maxValue
+     */
+    @Override
+    public Collection<Item> getItemsWithValueBetween(double minValue, double maxValue) throws IllegalArgumentException {
+        return Collections.unmodifiableCollection(this.contentsByValue.subMap(
+                ContentKey.lowestWithValue(minValue), true, ContentKey.highestWithValue(maxValue), true).values());
+    }
+
+    /**
+     * Returns a read-only, weakly consistent view of the items in this backpack that are worth more than the given value.
+     * @param 	value
+     */
+    @Override
+    public Collection<Item> getItemsWorthMoreThan(double value) {
+        return Collections.unmodifiableCollection(this.contentsByValue.tailMap(
+                ContentKey.highestWithValue(value), false).values());
+    }
+
+    /**
+     * Returns the item with the lowest weight in the backpack, or null if it is empty.
+     */
+    @Override
+    public Item getLowestWeightItem() {
+        Map.Entry<ContentKey, Item> first = this.contents.firstEntry();
+        return (first == null) ? null : first.getValue();
+    }
+
+    /**
+     * Returns the item with the highest weight in the backpack, or null if it is empty.
+     */
+    @Override
+    public Item getHighestWeightItem() {
+        Map.Entry<ContentKey, Item> last = this.contents.lastEntry();
+        return (last == null) ? null : last.getValue();
+    }
+
+    //WEIGHT
+    /**
+     * Variable referencing the bits of the total weight of the contents of the backpack, as a double.
+     */
+    private final AtomicLong contentWeight = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    /**
+     * Method to reserve the given weight in the backpack, if it still fits.
+     * @param 	weight
+     * @return	True if the weight fitted and has been added to the content weight.
+     */
+    private boolean reserveWeight(float weight) {
+        while (true) {
+            long bits = this.contentWeight.get();
+            double current = Double.longBitsToDouble(bits);
+            if ((this.getCapacity() - current) < weight)
+                return false;
+            if (this.contentWeight.compareAndSet(bits, Double.doubleToRawLongBits(current + weight)))
+                return true;
+        }
+    }
+
+    /**
+     * Method to add the given weight to the content weight, without checking the capacity.
+     * @param 	weight
+     */
+    private void addWeight(double weight) {
+        if (weight != 0)
+            this.contentWeight.accumulateAndGet(Double.doubleToRawLongBits(weight),
+                    (bits, delta) -> Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + Double.longBitsToDouble(delta)));
+    }
+
+    /**
+     * Returns the weight of the contents of the backpack, without blocking.
+     */
+    @Override
+    public float getContentWeight() {
+        return (float) Double.longBitsToDouble(this.contentWeight.get());
+    }
+
+    //VALUE
+    /**
+     * Variable referencing the total value of the contents of the backpack.
+     */
+    private final DoubleAdder contentValue = new DoubleAdder();
+
+    /**
+     * Returns the value of the backpack itself plus the value of its contents, without blocking.
+     * @return	| getOwnValue() + sum of the values of the contents
+     */
+    @Override
+    public double getValue() {
+        return this.getOwnValue() + this.contentValue.sum();
+    }
+}
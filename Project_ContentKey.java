@@ -0,0 +1,116 @@
+import java.util.Comparator;
+
+/**
+ * Class of keys under which an item is stored in the contents of a backpack.
+ * A key records the weight and value of the item at the moment it was stored, so the ordering of the contents
+ * only changes when the backpack itself re-positions the item.
+ *
+ * @invar	Keys of the same backpack with the same weight are ordered by their sequence number.
+ * 			| BY_WEIGHT.compare(key, other) == Long.compare(key.sequence, other.sequence)
+ *
+ * @invar	Keys of the same backpack with the same value are ordered by their sequence number.
+ * 			| BY_VALUE.compare(key, other) == Long.compare(key.sequence, other.sequence)
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 2
+ *
+ */
+final class ContentKey {
+
+    /**
+     * Create a new content key with a weight, value and sequence number.
+     *
+     * @param 	weight
+     * 			The weight of the item at the moment it is stored.
+     * @param 	value
+     * 			The value of the item at the moment it is stored.
+     * @param 	sequence
+     * 			The sequence number that orders items of equal weight or value.
+     *
+     * @post	The weight of this new key will be equal to the given weight.
+     * 			| new.weight == weight
+     *
+     * @post	The value of this new key will be equal to the given value.
+     * 			| new.value == value
+     *
+     * @post	The sequence number of this new key will be equal to the given sequence number.
+     * 			| new.sequence == sequence
+     */
+    ContentKey(float weight, double value, long sequence) {
+        this.weight = weight;
+        this.value = value;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns a key that comes before all keys of items with the given weight or more.
+     * @param 	weight
+     * @return	A key with the given weight and the smallest sequence number.
+     * 			| new ContentKey(weight, 0, Long.MIN_VALUE)
+     */
+    static ContentKey lowestWithWeight(float weight) {
+        return new ContentKey(weight, 0, Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns a key that comes after all keys of items with the given weight or less.
+     * @param 	weight
+     * @return	A key with the given weight and the largest sequence number.
+     * 			| new ContentKey(weight, 0, Long.MAX_VALUE)
+     */
+    static ContentKey highestWithWeight(float weight) {
+        return new ContentKey(weight, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a key that comes before all keys of items with the given value or more.
+     * @param 	value
+     * @return	A key with the given value and the smallest sequence number.
+     * 			| new ContentKey(0, value, Long.MIN_VALUE)
+     */
+    static ContentKey lowestWithValue(double value) {
+        return new ContentKey(0, value, Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns a key that comes after all keys of items with the given value or less.
+     * @param 	value
+     * @return	A key with the given value and the largest sequence number.
+     * 			| new ContentKey(0, value, Long.MAX_VALUE)
+     */
+    static ContentKey highestWithValue(double value) {
+        return new ContentKey(0, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Variable referencing the weight of the stored item.
+     */
+    final float weight;
+
+    /**
+     * Variable referencing the value of the stored item.
+     */
+    final double value;
+
+    /**
+     * Variable referencing the sequence number of the stored item.
+     */
+    final long sequence;
+
+    /**
+     * Orders keys by weight, and keys of equal weight by sequence number.
+     */
+    static final Comparator<ContentKey> BY_WEIGHT = (key, other) -> {
+        int result = Float.compare(key.weight, other.weight);
+        return (result != 0) ? result : Long.compare(key.sequence, other.sequence);
+    };
+
+    /**
+     * Orders keys by value, and keys of equal value by sequence number.
+     */
+    static final Comparator<ContentKey> BY_VALUE = (key, other) -> {
+        int result = Double.compare(key.value, other.value);
+        return (result != 0) ? result : Long.compare(key.sequence, other.sequence);
+    };
+}
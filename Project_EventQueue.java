@@ -0,0 +1,212 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Class of priority queues of timed events, each event being the index of the entity it concerns.
+ * The queue is a binary min-heap stored in parallel arrays of primitives, so scheduling and dispatching an event
+ * costs O(log n) and no objects are created per event; the arrays only grow, by doubling.
+ * Events are dispatched in order of time, and events at the same time in the order in which they were scheduled.
+ *
+ * @invar	The number of pending events is never negative.
+ * 			| size() >= 0
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class EventQueue {
+
+    /**
+     * Create a new, empty event queue with room for the given number of events.
+     *
+     * @param 	capacity
+     * 			The number of events the queue can hold before its arrays have to grow.
+     *
+     * @post	The queue holds no events.
+     * 			| new.size() == 0
+     *
+     * @throws	IllegalArgumentException
+     * 			The given capacity is negative.
+     * 			| capacity < 0
+     */
+    public EventQueue(int capacity) throws IllegalArgumentException {
+        if (capacity < 0)
+            throw new IllegalArgumentException();
+        this.times = new long[capacity];
+        this.sequenceNbs = new long[capacity];
+        this.entities = new int[capacity];
+    }
+
+    /**
+     * Variable referencing the time of every pending event, in heap order.
+     */
+    private long[] times;
+
+    /**
+     * Variable referencing the order in which every pending event was scheduled, in heap order.
+     */
+    private long[] sequenceNbs;
+
+    /**
+     * Variable referencing the entity of every pending event, in heap order.
+     */
+    private int[] entities;
+
+    /**
+     * Variable referencing the number of pending events.
+     */
+    private int size;
+
+    /**
+     * Variable referencing the number of events scheduled so far.
+     */
+    private long nbScheduled;
+
+    /**
+     * Returns the number of pending events.
+     * @return size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether there are no pending events.
+     * @return	| size() == 0
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Method to schedule an event for the given entity at the given time.
+     *
+     * @param 	time
+     * @param 	entity
+     *
+     * @post	The queue holds one more pending event.
+     * 			| new.size() == size() + 1
+     */
+    public void add(long time, int entity) {
+        if (this.size == this.times.length) {
+            int length = Math.max(16, 2 * this.size);
+            this.times = Arrays.copyOf(this.times, length);
+            this.sequenceNbs = Arrays.copyOf(this.sequenceNbs, length);
+            this.entities = Arrays.copyOf(this.entities, length);
+        }
+        long sequenceNb = this.nbScheduled++;
+        int hole = this.size++;
+        while (hole > 0) {
+            int parent = (hole - 1) >>> 1;
+            if (!before(time, sequenceNb, this.times[parent], this.sequenceNbs[parent]))
+                break;
+            this.move(parent, hole);
+            hole = parent;
+        }
+        this.set(hole, time, sequenceNb, entity);
+    }
+
+    /**
+     * Returns the time of the next event.
+     *
+     * @throws	NoSuchElementException
+     * 			There are no pending events.
+     * 			| isEmpty()
+     */
+    public long peekTime() throws NoSuchElementException {
+        if (this.size == 0)
+            throw new NoSuchElementException();
+        return this.times[0];
+    }
+
+    /**
+     * Returns the entity of the next event.
+     *
+     * @throws	NoSuchElementException
+     * 			There are no pending events.
+     * 			| isEmpty()
+     */
+    public int peekEntity() throws NoSuchElementException {
+        if (this.size == 0)
+            throw new NoSuchElementException();
+        return this.entities[0];
+    }
+
+    /**
+     * Removes the next event and returns its entity.
+     * @return	| peekEntity()
+     *
+     * @post	The queue holds one event less.
+     * 			| new.size() == size() - 1
+     *
+     * @throws	NoSuchElementException
+     * 			There are no pending events.
+     * 			| isEmpty()
+     */
+    public int poll() throws NoSuchElementException {
+        int entity = this.peekEntity();
+        int last = --this.size;
+        long time = this.times[last];
+        long sequenceNb = this.sequenceNbs[last];
+        int lastEntity = this.entities[last];
+        int hole = 0;
+        int half = last >>> 1;
+        while (hole < half) {
+            int child = 2 * hole + 1;
+            if ((child + 1 < last) && before(this.times[child + 1], this.sequenceNbs[child + 1], this.times[child], this.sequenceNbs[child]))
+                child++;
+            if (!before(this.times[child], this.sequenceNbs[child], time, sequenceNb))
+                break;
+            this.move(child, hole);
+            hole = child;
+        }
+        if (last > 0)
+            this.set(hole, time, sequenceNb, lastEntity);
+        return entity;
+    }
+
+    /**
+     * Method to remove all pending events.
+     *
+     * @post	| new.isEmpty()
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Checks whether an event with the first time and sequence number comes before an event with the second.
+     * @param 	time
+     * @param 	sequenceNb
+     * @param 	otherTime
+     * @param 	otherSequenceNb
+     */
+    private static boolean before(long time, long sequenceNb, long otherTime, long otherSequenceNb) {
+        return (time < otherTime) || ((time == otherTime) && (sequenceNb < otherSequenceNb));
+    }
+
+    /**
+     * Method to move the event at one position of the heap to another.
+     * @param 	from
+     * @param 	to
+     */
+    private void move(int from, int to) {
+        this.times[to] = this.times[from];
+        this.sequenceNbs[to] = this.sequenceNbs[from];
+        this.entities[to] = this.entities[from];
+    }
+
+    /**
+     * Method to store an event at a position of the heap.
+     * @param 	position
+     * @param 	time
+     * @param 	sequenceNb
+     * @param 	entity
+     */
+    private void set(int position, long time, long sequenceNb, int entity) {
+        this.times[position] = time;
+        this.sequenceNbs[position] = sequenceNb;
+        this.entities[position] = entity;
+    }
+}
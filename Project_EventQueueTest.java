@@ -0,0 +1,37 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class EventQueueTest {
+
+	@Test
+	public final void poll_OrderCase() {
+		EventQueue events = new EventQueue(0);
+		SplittableRandom random = new SplittableRandom(17);
+		int nbEvents = 5000;
+		for (int i = 0; i < nbEvents; i++)
+			events.add(random.nextInt(100), i);
+		long lastTime = Long.MIN_VALUE;
+		int lastEntity = -1;
+		for (int i = 0; i < nbEvents; i++) {
+			long time = events.peekTime();
+			int entity = events.poll();
+			assertTrue(time >= lastTime);
+			if (time == lastTime)
+				assertTrue(entity > lastEntity);
+			lastTime = time;
+			lastEntity = entity;
+		}
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	public final void poll_throws_Empty() {
+		EventQueue events = new EventQueue(0);
+		assertThrows(NoSuchElementException.class, () -> events.poll());
+	}
+}
@@ -0,0 +1,174 @@
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Class of spliterators that visit, depth first, every item held directly or indirectly by monsters or backpacks.
+ * Backpacks are only opened when the traversal reaches them, so no list of all items is ever built.
+ * A spliterator can be split into parts that each cover a disjoint set of items,
+ * which lets parallel streams spread a large inventory or population over all cores.
+ *
+ * @note	The held items must not be moved while a traversal is in progress.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class HeldItemSpliterator implements Spliterator<Item> {
+
+    /**
+     * Create a new spliterator that visits the given items and, for backpacks, everything inside them.
+     *
+     * @param 	pending
+     * 			The items still to be visited together with their contents.
+     *
+     * @post	The items still to be visited together with their contents are the given items.
+     * 			| new.pending == pending
+     */
+    private HeldItemSpliterator(ArrayDeque<Item> pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * Returns a spliterator over all items a monster holds in its anchors, including everything inside its backpacks.
+     * @param 	monster
+     * @return	A spliterator over the equipment of the monster and all contents of the backpacks in it.
+     */
+    public static HeldItemSpliterator of(Monster monster) {
+        ArrayDeque<Item> pending = new ArrayDeque<>();
+        addEquipment(pending, monster);
+        return new HeldItemSpliterator(pending);
+    }
+
+    /**
+     * Returns a spliterator over all items held by the given monsters, including everything inside their backpacks.
+     * @param 	monsters
+     * @return	A spliterator over the equipment of every monster and all contents of the backpacks in it.
+     */
+    public static HeldItemSpliterator of(Collection<Monster> monsters) {
+        ArrayDeque<Item> pending = new ArrayDeque<>();
+        for (Monster monster : monsters)
+            addEquipment(pending, monster);
+        return new HeldItemSpliterator(pending);
+    }
+
+    /**
+     * Returns a spliterator over all items inside a backpack, including everything inside nested backpacks.
+     * The backpack itself is not visited.
+     * @param 	backpack
+     * @return	A spliterator over the contents of the backpack and of all backpacks in it.
+     */
+    public static HeldItemSpliterator of(Backpack backpack) {
+        return new HeldItemSpliterator(new ArrayDeque<>(backpack.getContents()));
+    }
+
+    /**
+     * Method to add the equipment of a monster to the given items.
+     * @param 	pending
+     * @param 	monster
+     *
+     * @post	Every item in the anchors of the monster is added to the given items.
+     * 			| for (item in monster.getEquipment())
+     * 			| 	if (item != null)
+     * 			| 		then pending.add(item)
+     */
+    private static void addEquipment(ArrayDeque<Item> pending, Monster monster) {
+        for (Item item : monster.getEquipment()) {
+            if (item != null)
+                pending.add(item);
+        }
+    }
+
+    /**
+     * Variable referencing the items still to be visited together with their contents.
+     */
+    private final ArrayDeque<Item> pending;
+
+    /**
+     * Variable referencing the items still to be visited whose contents were already handed to another spliterator.
+     */
+    private final ArrayDeque<Item> opened = new ArrayDeque<>();
+
+    /**
+     * Visits the next item, if any.
+     * @param 	action
+     * 			The action to perform on the item.
+     * @return	True if an item was visited.
+     *
+     * @effect	If the visited item is a backpack whose contents were not handed off,
+     * 			its contents are visited next.
+     * 			| if (item instanceof Backpack)
+     * 			| 	then pending.addAll(item.getContents())
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super Item> action) {
+        Item item = this.opened.pollFirst();
+        if (item == null) {
+            item = this.pending.pollFirst();
+            if (item == null)
+                return false;
+            if (item instanceof Backpack) {
+                for (Item content : ((Backpack) item).getContents())
+                    this.pending.addFirst(content);
+            }
+        }
+        action.accept(item);
+        return true;
+    }
+
+    /**
+     * Hands part of the remaining items to a new spliterator.
+     * @return	A spliterator over half of the items still to be visited, or null if they cannot be split.
+     *
+     * @effect	If only one item is left to be visited and it is a backpack with more than one item,
+     * 			the backpack is opened first so its contents can be split.
+     * 			| if (pending.size() == 1 && pending.peek() instanceof Backpack)
+     * 			| 	then opened.add(pending.peek())
+     * 			|		 pending = pending.peek().getContents()
+     */
+    @Override
+    public Spliterator<Item> trySplit() {
+        Item only = this.pending.peekFirst();
+        if ((this.pending.size() == 1) && (only instanceof Backpack) && (((Backpack) only).getContents().size() > 1)) {
+            this.pending.pollFirst();
+            this.opened.add(only);
+            this.pending.addAll(((Backpack) only).getContents());
+        }
+        int size = this.pending.size();
+        if (size < 2)
+            return null;
+        ArrayDeque<Item> split = new ArrayDeque<>(size / 2);
+        for (int i = 0; i < size / 2; i++)
+            split.addFirst(this.pending.pollLast());
+        return new HeldItemSpliterator(split);
+    }
+
+    /**
+     * Returns an estimate of the number of items left to be visited.
+     * Only the direct contents of a single remaining backpack are counted, since that is the case trySplit() opens;
+     * other nested contents are only known once they are reached, so the estimate may be too low.
+     * @return	The number of items still to be visited at the top level,
+     * 			plus the number of items in the only one of them if it is a backpack.
+     * 			| pending.size() + opened.size()
+     * 			| 	+ ((pending.size() == 1 && pending.peek() instanceof Backpack) ? pending.peek().getContents().size() : 0)
+     */
+    @Override
+    public long estimateSize() {
+        long size = this.pending.size() + this.opened.size();
+        Item only = this.pending.peekFirst();
+        if ((this.pending.size() == 1) && (only instanceof Backpack))
+            size += ((Backpack) only).getContents().size();
+        return size;
+    }
+
+    /**
+     * Returns the characteristics of this spliterator.
+     * @return	NONNULL, since only non-null items are visited.
+     */
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Enumeration of the possible outcomes of one hit of a monster on another monster.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public enum HitOutcome {
+
+    /**
+     * The hit did not land, so the defending monster kept all its hitpoints.
+     */
+    MISS,
+
+    /**
+     * The hit landed and the defending monster survived it.
+     */
+    HIT,
+
+    /**
+     * The hit landed and left the defending monster without hitpoints.
+     */
+    KILL
+}
@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Class of estimators that measure the chance that a monster wins a fight by running it many times.
+ * Unlike a MatchupSolver, an estimator can handle any fight that can be played out, such as fights with equipment swaps.
+ * Trials are run in batches, one wave of batches per worker of a fork/join pool at a time. The batches are then added
+ * in order, and after every batch the Wilson score interval of the win rate is computed; the estimate stops at the first batch
+ * where that interval is narrow enough, so easy matchups need few trials.
+ * Every batch draws its rolls from its own generator derived from the seed and the position of the batch, and batches
+ * beyond the stopping point are discarded, so an estimate with the same seed gives the same result on any number of threads.
+ *
+ * @invar	The number of trials of a batch is positive.
+ * 			| getBatchSize() > 0
+ *
+ * @invar	The maximum number of trials of an estimate is positive.
+ * 			| getMaxTrials() > 0
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class MatchupEstimator {
+
+    /**
+     * Create a new estimator that runs its trials in the given fork/join pool.
+     *
+     * @param 	pool
+     * 			The pool in which the trials are run.
+     * @param 	batchSize
+     * 			The number of trials a worker runs in one go.
+     * @param 	maxTrials
+     * 			The number of trials after which an estimate stops, even if it is not precise enough.
+     *
+     * @post	The batch size of this new estimator is equal to the given batch size.
+     * 			| new.getBatchSize() == batchSize
+     *
+     * @post	The maximum number of trials of this new estimator is equal to the given maximum.
+     * 			| new.getMaxTrials() == maxTrials
+     *
+     * @throws	IllegalArgumentException
+     * 			The pool is null, or the batch size or maximum number of trials is not positive.
+     * 			| (pool == null) || (batchSize <= 0) || (maxTrials <= 0)
+     */
+    public MatchupEstimator(ForkJoinPool pool, int batchSize, long maxTrials) throws IllegalArgumentException {
+        if ((pool == null) || (batchSize <= 0) || (maxTrials <= 0))
+            throw new IllegalArgumentException();
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.maxTrials = maxTrials;
+    }
+
+    /**
+     * Variable referencing the pool in which the trials are run.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Variable referencing the number of trials a worker runs in one go.
+     */
+    private final int batchSize;
+
+    /**
+     * Variable referencing the number of trials after which an estimate stops.
+     */
+    private final long maxTrials;
+
+    /**
+     * Returns the number of trials a worker runs in one go.
+     * @return batchSize
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Returns the number of trials after which an estimate stops, even if it is not precise enough.
+     * @return maxTrials
+     */
+    public long getMaxTrials() {
+        return this.maxTrials;
+    }
+
+    //TRIALS
+    /**
+     * Interface of trials: single fights that are played out with rolls drawn from a given generator.
+     */
+    public interface Trial {
+
+        /**
+         * Plays out one fight.
+         * @param 	random
+         * 			The generator from which all rolls of the fight are drawn.
+         * @return	True if the monster whose win rate is estimated has won.
+         */
+        boolean run(RandomGenerator random);
+    }
+
+    /**
+     * Returns a trial in which fresh monsters fight as in a CombatEngine.
+     * @param 	first
+     * 			Creates the monster that hits first, whose win rate is estimated.
+     * @param 	second
+     * 			Creates the monster that hits second.
+     * @param 	maxRounds
+     * 			The number of rounds after which the fight ends in a draw, which counts as a loss.
+     * @return	A trial that creates both monsters and lets them hit each other in turns
+     * 			until one has died or the maximum number of rounds is reached.
+     */
+    public static Trial fight(Supplier<Monster> first, Supplier<Monster> second, int maxRounds) {
+        return random -> {
+            Monster attacker = first.get();
+            Monster defender = second.get();
+            for (int round = 0; round < maxRounds; round++) {
+                if (attacker.hitOtherMonster(defender, random) == HitOutcome.KILL)
+                    return true;
+                if (defender.hitOtherMonster(attacker, random) == HitOutcome.KILL)
+                    return false;
+            }
+            return false;
+        };
+    }
+
+    //ESTIMATING
+    /**
+     * Estimates the win rate of the given trial.
+     *
+     * @param 	trial
+     * @param 	halfWidth
+     * 			The largest half width of the confidence interval at which the estimate may stop.
+     * @param 	z
+     * 			The number of standard deviations covered by the confidence interval, such as 1.96 for 95 percent.
+     * @param 	seed
+     * 			The seed from which the generators of all batches are derived.
+     * @return	An estimate whose confidence interval has at most the given half width,
+     * 			or the estimate after the maximum number of trials if that comes first.
+     *
+     * @throws	IllegalArgumentException
+     * 			The trial is null, or the half width or number of standard deviations is not positive.
+     * 			| (trial == null) || !(halfWidth > 0) || !(z > 0)
+     */
+    public Estimate estimate(Trial trial, double halfWidth, double z, long seed) throws IllegalArgumentException {
+        if ((trial == null) || !(halfWidth > 0) || !(z > 0))
+            throw new IllegalArgumentException();
+        int batchesPerWave = this.pool.getParallelism();
+        long trials = 0;
+        long wins = 0;
+        int nextBatch = 0;
+        while (trials < this.maxTrials) {
+            List<Callable<Long>> wave = new ArrayList<>(batchesPerWave);
+            long waveTrials = trials;
+            for (int i = 0; (i < batchesPerWave) && (waveTrials < this.maxTrials); i++) {
+                int size = (int) Math.min(this.batchSize, this.maxTrials - waveTrials);
+                SplittableRandom random = CombatEngine.fightRandom(seed, nextBatch++);
+                wave.add(() -> runBatch(trial, size, random));
+                waveTrials += size;
+            }
+            for (Future<Long> batch : this.pool.invokeAll(wave)) {
+                try {
+                    wins += batch.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+                trials += Math.min(this.batchSize, this.maxTrials - trials);
+                Estimate estimate = new Estimate(trials, wins, z, true);
+                if (estimate.getHalfWidth() <= halfWidth)
+                    return estimate;
+            }
+        }
+        return new Estimate(trials, wins, z, false);
+    }
+
+    /**
+     * Runs a batch of trials.
+     * @param 	trial
+     * @param 	size
+     * 			The number of trials to run.
+     * @param 	random
+     * 			The generator from which the rolls of all trials of the batch are drawn.
+     * @return	The number of trials that were won.
+     */
+    private static long runBatch(Trial trial, int size, RandomGenerator random) {
+        long wins = 0;
+        for (int i = 0; i < size; i++) {
+            if (trial.run(random))
+                wins++;
+        }
+        return wins;
+    }
+
+    /**
+     * Class of estimates of a win rate, with their Wilson score interval.
+     */
+    public static final class Estimate {
+
+        /**
+         * Create a new estimate from the given number of trials and wins.
+         * @param 	trials
+         * @param 	wins
+         * @param 	z
+         * 			The number of standard deviations covered by the confidence interval.
+         * @param 	precise
+         * 			Whether the estimate reached the requested precision.
+         */
+        Estimate(long trials, long wins, double z, boolean precise) {
+            this.trials = trials;
+            this.wins = wins;
+            this.precise = precise;
+            if (trials == 0) {
+                this.lower = 0;
+                this.upper = 1;
+            } else {
+                double rate = (double) wins / trials;
+                double zz = z * z / trials;
+                double center = (rate + zz / 2) / (1 + zz);
+                double spread = z * Math.sqrt(rate * (1 - rate) / trials + zz / (4 * trials)) / (1 + zz);
+                this.lower = Math.max(0, center - spread);
+                this.upper = Math.min(1, center + spread);
+            }
+        }
+
+        /**
+         * Variable referencing the number of trials run.
+         */
+        private final long trials;
+
+        /**
+         * Variable referencing the number of trials won.
+         */
+        private final long wins;
+
+        /**
+         * Variable referencing the lower bound of the confidence interval.
+         */
+        private final double lower;
+
+        /**
+         * Variable referencing the upper bound of the confidence interval.
+         */
+        private final double upper;
+
+        /**
+         * Variable registering whether the estimate reached the requested precision.
+         */
+        private final boolean precise;
+
+        /**
+         * Returns the number of trials run.
+         * @return trials
+         */
+        public long getNbTrials() {
+            return this.trials;
+        }
+
+        /**
+         * Returns the number of trials won.
+         * @return wins
+         */
+        public long getNbWins() {
+            return this.wins;
+        }
+
+        /**
+         * Returns the fraction of trials won.
+         * @return	The number of wins divided by the number of trials, or zero if no trial was run.
+         */
+        public double getWinRate() {
+            return (this.trials == 0) ? 0 : (double) this.wins / this.trials;
+        }
+
+        /**
+         * Returns the lower bound of the Wilson score interval of the win rate.
+         * @return lower
+         */
+        public double getLower() {
+            return this.lower;
+        }
+
+        /**
+         * Returns the upper bound of the Wilson score interval of the win rate.
+         * @return upper
+         */
+        public double getUpper() {
+            return this.upper;
+        }
+
+        /**
+         * Returns half the width of the Wilson score interval of the win rate.
+         * @return	(getUpper() - getLower()) / 2
+         */
+        public double getHalfWidth() {
+            return (this.upper - this.lower) / 2;
+        }
+
+        /**
+         * Checks whether the estimate reached the requested precision before the maximum number of trials.
+         * @return precise
+         */
+        public boolean isPrecise() {
+            return this.precise;
+        }
+    }
+}
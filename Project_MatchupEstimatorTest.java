@@ -0,0 +1,50 @@
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MatchupEstimatorTest {
+
+	private ForkJoinPool pool;
+	private MatchupEstimator estimator;
+
+	@Before
+	public void setUp() throws Exception {
+		pool = new ForkJoinPool(4);
+		estimator = new MatchupEstimator(pool, 1000, 10000000);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.shutdown();
+	}
+
+	@Test
+	public final void estimate_EarlyStopCase() {
+		MatchupEstimator.Estimate estimate = estimator.estimate(random -> random.nextDouble() < 0.3, 0.01, 1.96, 5);
+		assertTrue(estimate.isPrecise());
+		assertTrue(estimate.getNbTrials() < 100000);
+		assertTrue(estimate.getLower() < 0.3 && 0.3 < estimate.getUpper());
+	}
+
+	@Test
+	public final void estimate_SeededCase() {
+		MatchupEstimator.Estimate estimate = estimator.estimate(random -> random.nextDouble() < 0.3, 0.01, 1.96, 5);
+		ForkJoinPool otherPool = new ForkJoinPool(3);
+		MatchupEstimator.Estimate again = new MatchupEstimator(otherPool, 1000, 10000000)
+				.estimate(random -> random.nextDouble() < 0.3, 0.01, 1.96, 5);
+		otherPool.shutdown();
+		assertEquals(estimate.getNbTrials(), again.getNbTrials());
+		assertEquals(estimate.getNbWins(), again.getNbWins());
+	}
+
+	@Test
+	public final void fight_LegalCase() {
+		MatchupEstimator.Trial fight = MatchupEstimator.fight(() -> Combatants.newCombatant("Ork", 20, 1, 30, 10),
+				() -> Combatants.newCombatant("Elf", 1, 1, 30, 10), 1000);
+		assertTrue(estimator.estimate(fight, 0.05, 1.96, 5).getWinRate() > 0.5);
+	}
+}
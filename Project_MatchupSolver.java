@@ -0,0 +1,437 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class of solvers that compute the exact chances of a fight between two monsters without simulating it.
+ * In every round the first monster hits the second and, if the second is still alive, the second hits the first,
+ * following the rules of the method hitOtherMonster() of Monster.
+ * A hit of a monster X on a monster Y lands when the roll, a uniform number from 0 to 30, is larger than the protection of Y
+ * and X has more hitpoints than the protection of Y; it then takes the hit damage of X from Y.
+ * Starting from given hitpoints, the only reachable states of a fight are those in which each monster has taken
+ * some number of hits, so the chances are solved by dynamic programming over that lattice of hit counts,
+ * keeping only two rows of it in memory. Solved matchups are kept, so repeated matchups are answered by a lookup.
+ *
+ * @note	Fights are not capped at a number of rounds: the chances are those of a fight that goes on until a monster dies.
+ * 			A CombatEngine ends a fight in a draw after its maximum number of rounds, so for fights that are expected to
+ * 			last about that long or longer, its draws are counted here as wins of one of the monsters.
+ *
+ * @note	A fight in which neither monster can change the other's hitpoints anymore never ends; it is counted as a draw
+ * 			and its remaining rounds are not counted.
+ *
+ * @note	The time to solve a new matchup grows with the product of the number of hits each monster can take,
+ * 			which is limited to MAX_STATES.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 2
+ *
+ */
+public final class MatchupSolver {
+
+    /**
+     * Variable referencing the largest number of states of the lattice of a matchup that is solved.
+     */
+    public static final long MAX_STATES = 1L << 24;
+
+    /**
+     * Variable referencing the solved matchups, for every key of hitpoints, protection and hit damage.
+     */
+    private final ConcurrentHashMap<Key, Matchup> matchups = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the chances of a fight between two monsters as they are now, in which the first monster hits first.
+     * @param 	first
+     * @param 	second
+     * @return	The chances for the current hitpoints, maximum hitpoints, protection and hit damage of both monsters.
+     * 			| solve(first.getHitpoints(), first.getMaxHitpoints(), first.getProtection(), first.getAttackProfile().getHitDamage(),
+     * 			|	second.getHitpoints(), second.getMaxHitpoints(), second.getProtection(), second.getAttackProfile().getHitDamage())
+     *
+     * @throws	IllegalArgumentException
+     * 			A monster is null, or the lattice of the matchup has more than MAX_STATES states.
+     */
+    public Matchup solve(Monster first, Monster second) throws IllegalArgumentException {
+        if ((first == null) || (second == null))
+            throw new IllegalArgumentException();
+        return this.solve(first.getHitpoints(), first.getMaxHitpoints(), first.getProtection(), first.getAttackProfile().getHitDamage(),
+                second.getHitpoints(), second.getMaxHitpoints(), second.getProtection(), second.getAttackProfile().getHitDamage());
+    }
+
+    /**
+     * Returns the chances of a fight between two monsters with the given statistics, in which the first monster hits first.
+     * @param 	firstHitpoints
+     * @param 	firstProtection
+     * @param 	firstDamage
+     * 			The hit damage of the first monster.
+     * @param 	secondHitpoints
+     * @param 	secondProtection
+     * @param 	secondDamage
+     * 			The hit damage of the second monster.
+     * @return	The chances that each monster wins, and the expected number of rounds.
+     * 			| solve(firstHitpoints, firstHitpoints, firstProtection, firstDamage,
+     * 			|	secondHitpoints, secondHitpoints, secondProtection, secondDamage)
+     *
+     * @throws	IllegalArgumentException
+     * 			Some hitpoints or hit damage are negative, or the lattice of the matchup has more than MAX_STATES states.
+     * 			| (firstHitpoints < 0) || (secondHitpoints < 0) || (firstDamage < 0) || (secondDamage < 0)
+     */
+    public Matchup solve(int firstHitpoints, int firstProtection, int firstDamage,
+                         int secondHitpoints, int secondProtection, int secondDamage) throws IllegalArgumentException {
+        if ((firstDamage < 0) || (secondDamage < 0))
+            throw new IllegalArgumentException();
+        return this.solve(firstHitpoints, firstHitpoints, firstProtection, firstDamage,
+                secondHitpoints, secondHitpoints, secondProtection, secondDamage);
+    }
+
+    /**
+     * Returns the chances of a fight between two monsters with the given statistics, in which the first monster hits first.
+     * A hit damage of zero never changes the hitpoints of the other monster, and a negative hit damage raises them
+     * until they exceed the maximum hitpoints, at which point the hit kills, as in the method applyDamage() of Monster.
+     *
+     * @param 	firstHitpoints
+     * @param 	firstMaxHitpoints
+     * @param 	firstProtection
+     * @param 	firstDamage
+     * 			The hit damage of the first monster.
+     * @param 	secondHitpoints
+     * @param 	secondMaxHitpoints
+     * @param 	secondProtection
+     * @param 	secondDamage
+     * 			The hit damage of the second monster.
+     * @return	The chances that each monster wins, and the expected number of rounds.
+     *
+     * @throws	IllegalArgumentException
+     * 			Some hitpoints are not valid for their maximum hitpoints.
+     * 			| !Monster.isValidHitpoints(firstHitpoints, firstMaxHitpoints) || !Monster.isValidHitpoints(secondHitpoints, secondMaxHitpoints)
+     *
+     * @throws	IllegalArgumentException
+     * 			The lattice of the matchup has more than MAX_STATES states.
+     */
+    public Matchup solve(int firstHitpoints, int firstMaxHitpoints, int firstProtection, int firstDamage,
+                         int secondHitpoints, int secondMaxHitpoints, int secondProtection, int secondDamage) throws IllegalArgumentException {
+        if (!Monster.isValidHitpoints(firstHitpoints, firstMaxHitpoints) || !Monster.isValidHitpoints(secondHitpoints, secondMaxHitpoints))
+            throw new IllegalArgumentException();
+        if ((firstHitpoints == 0) || (secondHitpoints == 0)) {
+            if (secondHitpoints > 0)
+                return new Matchup(0, 1, 0);
+            return new Matchup((firstHitpoints > 0) ? 1 : 0, 0, 0);
+        }
+        Key key = new Key(firstHitpoints, (secondDamage < 0) ? firstMaxHitpoints : 0, firstProtection, firstDamage,
+                secondHitpoints, (firstDamage < 0) ? secondMaxHitpoints : 0, secondProtection, secondDamage);
+        Matchup matchup = this.matchups.get(key);
+        if (matchup == null) {
+            matchup = solveLattice(key);
+            this.matchups.putIfAbsent(key, matchup);
+        }
+        return matchup;
+    }
+
+    /**
+     * Returns the number of matchups that have been solved and kept.
+     * @return matchups.size()
+     */
+    public int getNbMatchups() {
+        return this.matchups.size();
+    }
+
+    /**
+     * Method to forget all solved matchups.
+     *
+     * @post	| new.getNbMatchups() == 0
+     */
+    public void clear() {
+        this.matchups.clear();
+    }
+
+    /**
+     * Returns the chance that a monster with the given hitpoints lands a hit on a monster with the given protection.
+     * @param 	hitpoints
+     * @param 	protection
+     * @return	The fraction of rolls larger than the protection, or zero if the hitpoints are not larger than the protection.
+     * 			| if (hitpoints > protection)
+     * 			| 	then result == max(0, 30 - protection) / 31
+     * 			| 	else result == 0
+     */
+    static double hitChance(int hitpoints, int protection) {
+        if (hitpoints <= protection)
+            return 0;
+        return Math.max(0, Monster.NB_ROLLS - 1 - protection) / (double) Monster.NB_ROLLS;
+    }
+
+    /**
+     * Returns the number of hits a monster can take before it dies.
+     * @param 	hitpoints
+     * @param 	maxHitpoints
+     * @param 	damage
+     * 			The damage of every hit.
+     * @return	One if a hit never changes the hitpoints, since the monster then stays in its first state,
+     * 			and otherwise the number of hits after which the hitpoints are no longer valid or are zero.
+     */
+    private static long nbStates(int hitpoints, int maxHitpoints, int damage) {
+        if (damage == 0)
+            return 1;
+        if (damage > 0)
+            return (hitpoints + (long) damage - 1) / damage;
+        return ((long) maxHitpoints - hitpoints) / -damage + 1;
+    }
+
+    /**
+     * Returns the chances of the fight with the given key, solved over the lattice of hit counts.
+     * State (i, j) is the state in which the first monster has taken i hits and the second j hits. Every round either stays
+     * in the same state or moves to a state with more hits, so the states are solved from the most hits down,
+     * keeping only the row of states with one more hit on the first monster.
+     *
+     * @param 	key
+     *
+     * @throws	IllegalArgumentException
+     * 			The lattice has more than MAX_STATES states.
+     */
+    private static Matchup solveLattice(Key key) throws IllegalArgumentException {
+        long nbFirst = nbStates(key.firstHitpoints, key.firstMaxHitpoints, key.secondDamage);
+        long nbSecond = nbStates(key.secondHitpoints, key.secondMaxHitpoints, key.firstDamage);
+        if (nbFirst * nbSecond > MAX_STATES)
+            throw new IllegalArgumentException("Matchup has more than " + MAX_STATES + " states.");
+        int rows = (int) nbFirst;
+        int columns = (int) nbSecond;
+        int firstStep = (key.secondDamage == 0) ? 0 : 1;
+        int secondStep = (key.firstDamage == 0) ? 0 : 1;
+        double[] nextFirstWins = new double[columns + 1];
+        double[] nextSecondWins = new double[columns + 1];
+        double[] nextRounds = new double[columns + 1];
+        double[] firstWins = new double[columns + 1];
+        double[] secondWins = new double[columns + 1];
+        double[] rounds = new double[columns + 1];
+        for (int i = rows - 1; i >= 0; i--) {
+            int firstHitpoints = key.firstHitpoints - i * key.secondDamage;
+            int iAfter = i + firstStep;
+            double[] hitFirstWins = (iAfter == i) ? firstWins : nextFirstWins;
+            double[] hitSecondWins = (iAfter == i) ? secondWins : nextSecondWins;
+            double[] hitRounds = (iAfter == i) ? rounds : nextRounds;
+            for (int j = columns - 1; j >= 0; j--) {
+                int secondHitpoints = key.secondHitpoints - j * key.firstDamage;
+                int jAfter = j + secondStep;
+                double firstHits = hitChance(firstHitpoints, key.secondProtection);
+                double secondHits = hitChance(secondHitpoints, key.firstProtection);
+                double stay = 0;
+                double firstWon = 0;
+                double secondWon = 0;
+                double expected = 1;
+                if (jAfter == columns) {
+                    firstWon += firstHits;
+                } else {
+                    double secondHitsBack = hitChance(key.secondHitpoints - jAfter * key.firstDamage, key.firstProtection);
+                    double chance = firstHits * secondHitsBack;
+                    if (iAfter == rows) {
+                        secondWon += chance;
+                    } else if ((iAfter == i) && (jAfter == j)) {
+                        stay += chance;
+                    } else {
+                        firstWon += chance * hitFirstWins[jAfter];
+                        secondWon += chance * hitSecondWins[jAfter];
+                        expected += chance * hitRounds[jAfter];
+                    }
+                    chance = firstHits * (1 - secondHitsBack);
+                    if (jAfter == j) {
+                        stay += chance;
+                    } else {
+                        firstWon += chance * firstWins[jAfter];
+                        secondWon += chance * secondWins[jAfter];
+                        expected += chance * rounds[jAfter];
+                    }
+                }
+                double chance = (1 - firstHits) * secondHits;
+                if (iAfter == rows) {
+                    secondWon += chance;
+                } else if (iAfter == i) {
+                    stay += chance;
+                } else {
+                    firstWon += chance * nextFirstWins[j];
+                    secondWon += chance * nextSecondWins[j];
+                    expected += chance * nextRounds[j];
+                }
+                stay += (1 - firstHits) * (1 - secondHits);
+                if (stay >= 1) {
+                    firstWins[j] = 0;
+                    secondWins[j] = 0;
+                    rounds[j] = 0;
+                } else {
+                    firstWins[j] = firstWon / (1 - stay);
+                    secondWins[j] = secondWon / (1 - stay);
+                    rounds[j] = expected / (1 - stay);
+                }
+            }
+            double[] swap = nextFirstWins;
+            nextFirstWins = firstWins;
+            firstWins = swap;
+            swap = nextSecondWins;
+            nextSecondWins = secondWins;
+            secondWins = swap;
+            swap = nextRounds;
+            nextRounds = rounds;
+            rounds = swap;
+        }
+        return new Matchup(nextFirstWins[0], nextSecondWins[0], nextRounds[0]);
+    }
+
+    /**
+     * Class of keys of the statistics of both monsters at the start of a fight.
+     */
+    private static final class Key {
+
+        /**
+         * Create a new key.
+         * @param 	firstHitpoints
+         * @param 	firstMaxHitpoints
+         * 			The maximum hitpoints of the first monster, or zero if they cannot matter.
+         * @param 	firstProtection
+         * @param 	firstDamage
+         * @param 	secondHitpoints
+         * @param 	secondMaxHitpoints
+         * 			The maximum hitpoints of the second monster, or zero if they cannot matter.
+         * @param 	secondProtection
+         * @param 	secondDamage
+         */
+        Key(int firstHitpoints, int firstMaxHitpoints, int firstProtection, int firstDamage,
+            int secondHitpoints, int secondMaxHitpoints, int secondProtection, int secondDamage) {
+            this.firstHitpoints = firstHitpoints;
+            this.firstMaxHitpoints = firstMaxHitpoints;
+            this.firstProtection = firstProtection;
+            this.firstDamage = firstDamage;
+            this.secondHitpoints = secondHitpoints;
+            this.secondMaxHitpoints = secondMaxHitpoints;
+            this.secondProtection = secondProtection;
+            this.secondDamage = secondDamage;
+        }
+
+        /**
+         * Variable referencing the hitpoints of the monster that hits first.
+         */
+        final int firstHitpoints;
+
+        /**
+         * Variable referencing the maximum hitpoints of the monster that hits first, or zero if they cannot matter.
+         */
+        final int firstMaxHitpoints;
+
+        /**
+         * Variable referencing the protection of the monster that hits first.
+         */
+        final int firstProtection;
+
+        /**
+         * Variable referencing the hit damage of the monster that hits first.
+         */
+        final int firstDamage;
+
+        /**
+         * Variable referencing the hitpoints of the monster that hits second.
+         */
+        final int secondHitpoints;
+
+        /**
+         * Variable referencing the maximum hitpoints of the monster that hits second, or zero if they cannot matter.
+         */
+        final int secondMaxHitpoints;
+
+        /**
+         * Variable referencing the protection of the monster that hits second.
+         */
+        final int secondProtection;
+
+        /**
+         * Variable referencing the hit damage of the monster that hits second.
+         */
+        final int secondDamage;
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return (this.firstHitpoints == key.firstHitpoints) && (this.firstMaxHitpoints == key.firstMaxHitpoints)
+                    && (this.firstProtection == key.firstProtection) && (this.firstDamage == key.firstDamage)
+                    && (this.secondHitpoints == key.secondHitpoints) && (this.secondMaxHitpoints == key.secondMaxHitpoints)
+                    && (this.secondProtection == key.secondProtection) && (this.secondDamage == key.secondDamage);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = this.firstHitpoints;
+            hash = hash * 31 + this.firstMaxHitpoints;
+            hash = hash * 31 + this.firstProtection;
+            hash = hash * 31 + this.firstDamage;
+            hash = hash * 31 + this.secondHitpoints;
+            hash = hash * 31 + this.secondMaxHitpoints;
+            hash = hash * 31 + this.secondProtection;
+            return hash * 31 + this.secondDamage;
+        }
+    }
+
+    /**
+     * Class of the chances of a fight between two monsters.
+     */
+    public static final class Matchup {
+
+        /**
+         * Create new chances of a fight.
+         * @param 	firstWins
+         * 			The chance that the monster that hits first wins.
+         * @param 	secondWins
+         * 			The chance that the monster that hits second wins.
+         * @param 	expectedRounds
+         * 			The expected number of rounds of the fight.
+         */
+        Matchup(double firstWins, double secondWins, double expectedRounds) {
+            this.firstWins = firstWins;
+            this.secondWins = secondWins;
+            this.expectedRounds = expectedRounds;
+        }
+
+        /**
+         * Variable referencing the chance that the monster that hits first wins.
+         */
+        private final double firstWins;
+
+        /**
+         * Variable referencing the chance that the monster that hits second wins.
+         */
+        private final double secondWins;
+
+        /**
+         * Variable referencing the expected number of rounds of the fight.
+         */
+        private final double expectedRounds;
+
+        /**
+         * Returns the chance that the monster that hits first wins.
+         * @return firstWins
+         */
+        public double getFirstWinChance() {
+            return this.firstWins;
+        }
+
+        /**
+         * Returns the chance that the monster that hits second wins.
+         * @return secondWins
+         */
+        public double getSecondWinChance() {
+            return this.secondWins;
+        }
+
+        /**
+         * Returns the chance that the fight ends without a winner.
+         * @return	The chance that neither monster wins.
+         * 			| 1 - getFirstWinChance() - getSecondWinChance()
+         */
+        public double getDrawChance() {
+            return Math.max(0, 1 - this.firstWins - this.secondWins);
+        }
+
+        /**
+         * Returns the expected number of rounds of the fight, up to the kill or until neither monster can change
+         * the other's hitpoints anymore.
+         * @return expectedRounds
+         */
+        public double getExpectedRounds() {
+            return this.expectedRounds;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MatchupSolverTest {
+
+	private MatchupSolver solver;
+
+	@Before
+	public void setUp() throws Exception {
+		solver = new MatchupSolver();
+	}
+
+	@Test
+	public final void solve_OneHitCase() {
+		double p = 1.0 / 31;
+		MatchupSolver.Matchup matchup = solver.solve(50, 29, 100, 50, 29, 100);
+		assertEquals(1 / (2 - p), matchup.getFirstWinChance(), 1e-12);
+		assertEquals(1 - 1 / (2 - p), matchup.getSecondWinChance(), 1e-12);
+		assertEquals(1 / (1 - (1 - p) * (1 - p)), matchup.getExpectedRounds(), 1e-9);
+	}
+
+	@Test
+	public final void solve_CachedCase() {
+		MatchupSolver.Matchup matchup = solver.solve(40, 5, 3, 35, 7, 4);
+		assertEquals(1, matchup.getFirstWinChance() + matchup.getSecondWinChance() + matchup.getDrawChance(), 1e-9);
+		assertSame(matchup, solver.solve(40, 5, 3, 35, 7, 4));
+		assertEquals(1, solver.getNbMatchups());
+		solver.clear();
+		assertEquals(0, solver.getNbMatchups());
+	}
+
+	@Test
+	public final void solve_ZeroDamageCase() {
+		MatchupSolver.Matchup matchup = solver.solve(10, 1, 0, 10, 1, 5);
+		assertEquals(0, matchup.getFirstWinChance(), 1e-12);
+		assertEquals(1, matchup.getSecondWinChance(), 1e-12);
+
+		matchup = solver.solve(10, 1, 0, 10, 1, 0);
+		assertEquals(1, matchup.getDrawChance(), 1e-12);
+	}
+
+	@Test
+	public final void solve_LargeHitpointsCase() {
+		MatchupSolver.Matchup matchup = solver.solve(70000, 5, 20, 70000, 5, 20);
+		assertEquals(1, matchup.getFirstWinChance() + matchup.getSecondWinChance(), 1e-9);
+	}
+
+	@Test
+	public final void solve_throws_NegativeDamage() {
+		assertThrows(IllegalArgumentException.class, () -> solver.solve(10, 1, -1, 10, 1, 5));
+	}
+
+	@Test
+	public final void solve_throws_TooManyStates() {
+		assertThrows(IllegalArgumentException.class, () -> solver.solve(1 << 30, 1, 1, 1 << 30, 1, 1));
+	}
+}
@@ -0,0 +1,320 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * Class of actors that own a monster and change it only by processing the commands in their mailbox, one at a time.
+ * Commands may be sent from any thread; an actor processes its commands in the order in which they arrived,
+ * on one thread of its executor at a time, so its monster, its equipment and everything in its backpacks
+ * are never touched by two threads at once and need no locks. Actors only hold a queue and a flag,
+ * so hundreds of thousands of them can be active; an actor with an empty mailbox takes no thread at all.
+ * Commands that involve two monsters, such as hits and dukat transfers, are split into one command for each actor.
+ * Every command returns a future that completes with its result, or exceptionally with the exception it threw.
+ * If the executor rejects the actor, every command still in its mailbox fails with the RejectedExecutionException,
+ * so no future is left incomplete.
+ *
+ * @note	The executor can be any executor; on Java 21 and later, Executors.newVirtualThreadPerTaskExecutor()
+ * 			gives every busy actor its own virtual thread.
+ *
+ * @note	Once a monster is owned by an actor, it and its items must only be used through commands of that actor.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class MonsterActor {
+
+    /**
+     * Create a new actor that owns the given monster and processes its commands on the given executor.
+     *
+     * @param 	monster
+     * @param 	executor
+     *
+     * @throws	IllegalArgumentException
+     * 			The given monster or executor is null.
+     */
+    public MonsterActor(Monster monster, Executor executor) throws IllegalArgumentException {
+        if ((monster == null) || (executor == null))
+            throw new IllegalArgumentException();
+        this.monster = monster;
+        this.executor = executor;
+    }
+
+    /**
+     * Variable referencing the number of commands an actor processes before it gives its thread back to the executor.
+     */
+    private static final int BATCH = 64;
+
+    /**
+     * Variable referencing the monster owned by the actor.
+     */
+    private final Monster monster;
+
+    /**
+     * Variable referencing the executor on which the actor processes its commands.
+     */
+    private final Executor executor;
+
+    /**
+     * Variable referencing the commands that have not been processed yet.
+     */
+    private final ConcurrentLinkedQueue<Command<?>> mailbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Variable referencing whether the actor has been handed to its executor to process its mailbox.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Returns the name of the monster owned by the actor, which never changes.
+     */
+    public String getName() {
+        return this.monster.getName();
+    }
+
+    //MAILBOX
+    /**
+     * Sends a command to the actor that reads or changes its monster.
+     *
+     * @param 	command
+     * 			The function that is applied to the monster.
+     * @return	A future that completes with the result of the command once the actor has processed it.
+     *
+     * @throws	IllegalArgumentException
+     * 			The given command is null.
+     *
+     * @throws	RejectedExecutionException
+     * 			The executor does not accept the actor; the command, and every other command in the mailbox,
+     * 			then fails with the exception and is not processed later.
+     */
+    public <T> CompletableFuture<T> ask(Function<? super Monster, ? extends T> command)
+            throws IllegalArgumentException, RejectedExecutionException {
+        if (command == null)
+            throw new IllegalArgumentException();
+        Command<T> message = new Command<>(command);
+        this.mailbox.add(message);
+        this.schedule();
+        return message.result;
+    }
+
+    /**
+     * Method to hand the actor to its executor, unless it has been handed to it already.
+     * If the executor rejects the actor, every command in the mailbox fails with the exception; commands that arrive
+     * while the mailbox is being emptied are handed to the executor again, or fail as well.
+     *
+     * @throws	RejectedExecutionException
+     * 			The executor does not accept the actor.
+     */
+    private void schedule() throws RejectedExecutionException {
+        RejectedExecutionException rejection = null;
+        while (this.scheduled.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this::processMailbox);
+                break;
+            } catch (RejectedExecutionException exception) {
+                rejection = exception;
+                for (Command<?> command = this.mailbox.poll(); command != null; command = this.mailbox.poll())
+                    command.result.completeExceptionally(exception);
+                this.scheduled.set(false);
+                if (this.mailbox.isEmpty())
+                    break;
+            }
+        }
+        if (rejection != null)
+            throw rejection;
+    }
+
+    /**
+     * Method to process the commands in the mailbox, at most a batch of them before the thread is given back.
+     * If the executor rejects the actor for the next batch, the remaining commands fail as in the method schedule().
+     */
+    private void processMailbox() {
+        for (int i = 0; i < BATCH; i++) {
+            Command<?> command = this.mailbox.poll();
+            if (command == null)
+                break;
+            command.run(this.monster);
+        }
+        this.scheduled.set(false);
+        if (!this.mailbox.isEmpty()) {
+            try {
+                this.schedule();
+            } catch (RejectedExecutionException exception) {
+                // The remaining commands have failed with the exception.
+            }
+        }
+    }
+
+    /**
+     * Class of commands in the mailbox of an actor, each with the future of its result.
+     */
+    private static final class Command<T> {
+
+        /**
+         * Create a new command that applies the given function.
+         * @param 	function
+         */
+        Command(Function<? super Monster, ? extends T> function) {
+            this.function = function;
+        }
+
+        /**
+         * Variable referencing the function that is applied to the monster.
+         */
+        private final Function<? super Monster, ? extends T> function;
+
+        /**
+         * Variable referencing the future that completes with the result of the command.
+         */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * Method to apply the command to the given monster and complete its future.
+         * @param 	monster
+         */
+        void run(Monster monster) {
+            try {
+                this.result.complete(this.function.apply(monster));
+            } catch (Throwable exception) {
+                this.result.completeExceptionally(exception);
+            }
+        }
+    }
+
+    //COMMANDS
+    /**
+     * Lets the monster of this actor hit the monster of the given actor,
+     * with a roll drawn from the random generator of the thread that processes the hit.
+     * @param 	target
+     *
+     * @effect	| hit(target, null)
+     */
+    public CompletableFuture<HitOutcome> hit(MonsterActor target) {
+        return this.hit(target, null);
+    }
+
+    /**
+     * Lets the monster of this actor hit the monster of the given actor.
+     * This actor draws the roll and reads the hitpoints and hit damage of its monster,
+     * and then the target checks the hit against the protection of its monster and takes the damage,
+     * following the rules of the method hitOtherMonster() of Monster.
+     *
+     * @param 	target
+     * @param 	random
+     * 			The generator from which the roll is drawn, only used by the thread of this actor,
+     * 			or null to use the generator of that thread.
+     * @return	A future that completes with the outcome of the hit.
+     *
+     * @throws	IllegalArgumentException
+     * 			The given target is null.
+     */
+    public CompletableFuture<HitOutcome> hit(MonsterActor target, RandomGenerator random) throws IllegalArgumentException {
+        if (target == null)
+            throw new IllegalArgumentException();
+        return this.ask(attacker -> new int[] {
+                    ((random == null) ? ThreadLocalRandom.current() : random).nextInt(0, Monster.NB_ROLLS),
+                    attacker.getHitpoints(), attacker.getAttackProfile().getHitDamage()})
+                .thenCompose(swing -> target.ask(defender -> Monster.lands(swing[0], swing[1], defender.getProtection())
+                        ? defender.applyDamage(swing[2]) : HitOutcome.MISS));
+    }
+
+    /**
+     * Lets the monster of this actor equip the given item.
+     * @param 	item
+     *
+     * @effect	| ask(monster -> monster.equip(item))
+     */
+    public CompletableFuture<Void> equip(Item item) {
+        return this.ask(monster -> {
+            monster.equip(item);
+            return null;
+        });
+    }
+
+    /**
+     * Lets the monster of this actor unequip the given item.
+     * @param 	item
+     *
+     * @effect	| ask(monster -> monster.unequip(item))
+     */
+    public CompletableFuture<Void> unequip(Item item) {
+        return this.ask(monster -> {
+            monster.unequip(item);
+            return null;
+        });
+    }
+
+    /**
+     * Lets the monster of this actor store the given item in one of its backpacks.
+     * @param 	item
+     *
+     * @effect	| ask(monster -> monster.storeInBackpack(item))
+     */
+    public CompletableFuture<Void> storeInBackpack(Item item) {
+        return this.ask(monster -> {
+            monster.storeInBackpack(item);
+            return null;
+        });
+    }
+
+    /**
+     * Transfers dukats from a purse of the monster of this actor to a purse of the monster of the given actor.
+     * This actor takes the dukats out of its purse, and then the receiver puts them in its purse;
+     * if the receiver does not hold the purse, the dukats are given back to the purse they came from,
+     * provided the monster of this actor still holds that purse.
+     * As with the method transferDukats() of Purse, a purse that cannot hold the dukats it receives is torn.
+     *
+     * @param 	purse
+     * 			The purse of this actor the dukats are taken from.
+     * @param 	receiver
+     * @param 	receiverPurse
+     * 			The purse of the receiver the dukats are put in.
+     * @param 	amount
+     * @return	A future that completes when the dukats are in the purse of the receiver, or exceptionally with an
+     * 			IllegalArgumentException if a purse is not held by its monster, in its equipment or in one of its backpacks,
+     * 			or does not contain enough dukats.
+     * 			If the purse the dukats came from has left the monster of this actor before they could be given back,
+     * 			the future completes exceptionally with an IllegalArgumentException whose cause is the failure of the transfer,
+     * 			and the dukats are lost rather than put in a purse this actor no longer owns.
+     *
+     * @throws	IllegalArgumentException
+     * 			The receiver is null or the amount is negative.
+     */
+    public CompletableFuture<Void> transferDukats(Purse purse, MonsterActor receiver, Purse receiverPurse, int amount)
+            throws IllegalArgumentException {
+        if ((receiver == null) || (amount < 0))
+            throw new IllegalArgumentException();
+        return this.ask(monster -> {
+            if (!holds(monster, purse) || (purse.getDukats() < amount))
+                throw new IllegalArgumentException();
+            purse.removeDukats(amount);
+            return null;
+        }).thenCompose(ignored -> receiver.<Void>ask(monster -> {
+            if (!holds(monster, receiverPurse))
+                throw new IllegalArgumentException();
+            receiverPurse.addDukats(amount);
+            return null;
+        }).exceptionallyCompose(exception -> this.<Void>ask(monster -> {
+            if (!holds(monster, purse))
+                throw new IllegalArgumentException("The purse has left the monster before the dukats could be given back.", exception);
+            purse.addDukats(amount);
+            return null;
+        }).thenCompose(refunded -> CompletableFuture.failedFuture(exception))));
+    }
+
+    /**
+     * Checks whether the given monster holds the given item, in its equipment or in one of its backpacks.
+     * @param 	monster
+     * @param 	item
+     * @return	| monster.streamAllItems().anyMatch(held -> held == item)
+     */
+    private static boolean holds(Monster monster, Item item) {
+        return monster.streamAllItems().anyMatch(held -> held == item);
+    }
+}
@@ -0,0 +1,153 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MonsterActorTest {
+
+	private Purse richPurse;
+	private Purse poorPurse;
+	private Monster rich;
+	private Monster poor;
+	private ForkJoinPool executor;
+	private MonsterActor richActor;
+	private MonsterActor poorActor;
+
+	@Before
+	public void setUp() throws Exception {
+		richPurse = new Purse(2_000_003, 0, 10, null, 1000, 100);
+		poorPurse = new Purse(2_000_005, 0, 10, null, 1000, 0);
+		rich = new Monster("Rich", 5, 5, 50, 100, 4, new Weapon(1, 1, 1, null), new Backpack(1, 1, 1, 10000, null), richPurse);
+		poor = new Monster("Poor", 5, 5, 50, 100, 4, new Weapon(1, 1, 1, null), new Backpack(1, 1, 1, 10000, null), poorPurse);
+		executor = new ForkJoinPool(4);
+		richActor = new MonsterActor(rich, executor);
+		poorActor = new MonsterActor(poor, executor);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdown();
+	}
+
+	@Test
+	public final void transferDukats_LegalCase() {
+		richActor.transferDukats(richPurse, poorActor, poorPurse, 10).join();
+		List<CompletableFuture<?>> commands = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			commands.add(richActor.transferDukats(richPurse, poorActor, poorPurse, 1));
+			commands.add(poorActor.transferDukats(poorPurse, richActor, richPurse, 1));
+		}
+		for (CompletableFuture<?> command : commands)
+			command.exceptionally(exception -> null).join();
+		int richDukats = richActor.ask(monster -> richPurse.getDukats()).join();
+		int poorDukats = poorActor.ask(monster -> poorPurse.getDukats()).join();
+		assertEquals(100, richDukats + poorDukats);
+	}
+
+	@Test
+	public final void transferDukats_RefundCase() {
+		Purse loosePurse = new Purse(2_000_007, 0, 10, null, 1000, 0);
+		CompletableFuture<Void> transfer = richActor.transferDukats(richPurse, poorActor, loosePurse, 1);
+		assertThrows(CompletionException.class, () -> transfer.join());
+		assertEquals(100, (int) richActor.ask(monster -> richPurse.getDukats()).join());
+		assertEquals(0, loosePurse.getDukats());
+	}
+
+	@Test
+	public final void transferDukats_PurseLeftCase() {
+		ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+		Executor manual = tasks::add;
+		MonsterActor richManual = new MonsterActor(rich, manual);
+		MonsterActor poorManual = new MonsterActor(poor, manual);
+		Purse loosePurse = new Purse(2_000_007, 0, 10, null, 1000, 0);
+		CompletableFuture<Void> transfer = richManual.transferDukats(richPurse, poorManual, loosePurse, 1);
+		richManual.ask(monster -> {
+			((Backpack) richPurse.getHolder()).removeItem(richPurse);
+			return null;
+		});
+		while (!tasks.isEmpty())
+			tasks.poll().run();
+		CompletionException failure = assertThrows(CompletionException.class, () -> transfer.join());
+		assertTrue(failure.getCause() instanceof IllegalArgumentException);
+		assertNotNull(failure.getCause().getCause());
+		assertEquals(99, richPurse.getDukats());
+		assertEquals(0, loosePurse.getDukats());
+	}
+
+	@Test
+	public final void hit_LegalCase() {
+		List<CompletableFuture<HitOutcome>> hits = new ArrayList<>();
+		for (int i = 0; i < 300; i++)
+			hits.add(richActor.hit(poorActor));
+		for (CompletableFuture<HitOutcome> hit : hits)
+			hit.join();
+		assertTrue(poorActor.ask(Monster::getHitpoints).join() < 50);
+	}
+
+	@Test
+	public final void ask_throws_Rejected() {
+		AtomicBoolean rejecting = new AtomicBoolean(true);
+		Executor direct = task -> {
+			if (rejecting.get())
+				throw new RejectedExecutionException();
+			task.run();
+		};
+		MonsterActor rejected = new MonsterActor(poor, direct);
+		AtomicInteger nbProcessed = new AtomicInteger();
+		assertThrows(RejectedExecutionException.class, () -> rejected.ask(monster -> nbProcessed.incrementAndGet()));
+		rejecting.set(false);
+		assertEquals(0, (int) rejected.ask(monster -> nbProcessed.get()).join());
+	}
+
+	@Test
+	public final void ask_throws_RejectedWhileSending() {
+		AtomicReference<MonsterActor> actor = new AtomicReference<>();
+		AtomicReference<CompletableFuture<Integer>> sentMeanwhile = new AtomicReference<>();
+		Executor rejecting = task -> {
+			sentMeanwhile.set(actor.get().ask(Monster::getHitpoints));
+			throw new RejectedExecutionException();
+		};
+		actor.set(new MonsterActor(poor, rejecting));
+		assertThrows(RejectedExecutionException.class, () -> actor.get().ask(Monster::getHitpoints));
+		assertTrue(sentMeanwhile.get().isCompletedExceptionally());
+	}
+
+	@Test
+	public final void ask_RejectedNextBatchCase() {
+		ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+		AtomicBoolean rejecting = new AtomicBoolean();
+		Executor manual = task -> {
+			if (rejecting.get())
+				throw new RejectedExecutionException();
+			tasks.add(task);
+		};
+		MonsterActor actor = new MonsterActor(poor, manual);
+		List<CompletableFuture<Integer>> commands = new ArrayList<>();
+		for (int i = 0; i < 100; i++)
+			commands.add(actor.ask(Monster::getHitpoints));
+		rejecting.set(true);
+		tasks.poll().run();
+		int nbFailed = 0;
+		for (CompletableFuture<Integer> command : commands) {
+			assertTrue(command.isDone());
+			if (command.isCompletedExceptionally())
+				nbFailed++;
+		}
+		assertTrue(tasks.isEmpty());
+		assertEquals(100 - 64, nbFailed);
+	}
+}
@@ -0,0 +1,573 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Class of pools that store the combat statistics of many monsters in parallel columns of primitives.
+ * The monster at index i of a pool has the hitpoints, maximum hitpoints, damage, protection, strength and weapon damage
+ * stored at position i of the columns. No names, items or other objects are kept, so a pool of a million monsters
+ * takes a few tens of megabytes and can be swept with tight loops.
+ * Monsters in a pool follow the same validation and combat rules as Monster objects;
+ * the weapon damage column holds the damage of the weapon in the combat anchor of the monster.
+ * The columns are private; the combat kernels of this package read and write single entries through
+ * package-private accessors that do not check their index, since they check their indices once per batch.
+ *
+ * @invar	The hitpoints of every monster in the pool are valid for its maximum hitpoints.
+ * 			| for (i in 0..size()-1) Monster.isValidHitpoints(getHitpoints(i), getMaxHitpoints(i))
+ *
+ * @invar	The maximum hitpoints of every monster in the pool are positive.
+ * 			| for (i in 0..size()-1) getMaxHitpoints(i) > 0
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class MonsterPool {
+
+    /**
+     * Create a new, empty pool with room for the given number of monsters.
+     *
+     * @param 	capacity
+     * 			The number of monsters the pool can hold before its columns have to grow.
+     *
+     * @post	The pool holds no monsters.
+     * 			| new.size() == 0
+     *
+     * @throws	IllegalArgumentException
+     * 			The given capacity is negative.
+     * 			| capacity < 0
+     */
+    public MonsterPool(int capacity) throws IllegalArgumentException {
+        if (capacity < 0)
+            throw new IllegalArgumentException();
+        this.hitpoints = new int[capacity];
+        this.maxHitpoints = new int[capacity];
+        this.damage = new int[capacity];
+        this.protection = new int[capacity];
+        this.strength = new int[capacity];
+        this.weaponDamage = new int[capacity];
+    }
+
+    //COLUMNS
+    /**
+     * Variable referencing the number of monsters in the pool.
+     */
+    private int size;
+
+    /**
+     * Variable referencing the current hitpoints of every monster in the pool.
+     */
+    private int[] hitpoints;
+
+    /**
+     * Variable referencing the maximum hitpoints of every monster in the pool.
+     */
+    private int[] maxHitpoints;
+
+    /**
+     * Variable referencing the damage of every monster in the pool.
+     */
+    private int[] damage;
+
+    /**
+     * Variable referencing the protection factor of every monster in the pool.
+     */
+    private int[] protection;
+
+    /**
+     * Variable referencing the strength of every monster in the pool.
+     */
+    private int[] strength;
+
+    /**
+     * Variable referencing the damage of the weapon in the combat anchor of every monster in the pool, or zero if there is none.
+     */
+    private int[] weaponDamage;
+
+    /**
+     * Returns the number of monsters in the pool.
+     * @return size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to make sure the columns of the pool can hold the given number of monsters.
+     * @param 	capacity
+     *
+     * @post	The columns can hold at least the given number of monsters.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.hitpoints.length) {
+            int length = Math.max(capacity, 2 * this.hitpoints.length);
+            this.hitpoints = Arrays.copyOf(this.hitpoints, length);
+            this.maxHitpoints = Arrays.copyOf(this.maxHitpoints, length);
+            this.damage = Arrays.copyOf(this.damage, length);
+            this.protection = Arrays.copyOf(this.protection, length);
+            this.strength = Arrays.copyOf(this.strength, length);
+            this.weaponDamage = Arrays.copyOf(this.weaponDamage, length);
+        }
+    }
+
+    /**
+     * Method to add a monster with the given statistics and full hitpoints to the pool.
+     *
+     * @param 	damage
+     * @param 	protection
+     * @param 	maxHitpoints
+     * @param 	strength
+     * @param 	weaponDamage
+     * 			The damage of the weapon in the combat anchor of the monster, or zero if there is none.
+     * @return	The index of the new monster.
+     * 			| old.size()
+     *
+     * @pre		The given protection factor must be a valid protection factor.
+     * 			| Monster.isValidProtection(protection, Monster.DEFAULT_MAX_PROTECTION)
+     *
+     * @post	The hitpoints of the new monster are equal to its maximum hitpoints.
+     * 			| new.getHitpoints(result) == maxHitpoints
+     *
+     * @post	The damage of the new monster is set as in the method setDamage() of Monster.
+     * 			| new.getDamage(result) == Monster.clampDamage(damage)
+     *
+     * @throws	IllegalArgumentException
+     * 			The given maximum hitpoints are not positive, or the given weapon damage is negative.
+     * 			| (maxHitpoints <= 0) || (weaponDamage < 0)
+     */
+    public int add(int damage, int protection, int maxHitpoints, int strength, int weaponDamage) throws IllegalArgumentException {
+        assert Monster.isValidProtection(protection, Monster.DEFAULT_MAX_PROTECTION): "Protection must be higher than or equal to the minimum protection, "
+                + "lower than or equal to the maximum protection and a prime number";
+        if ((maxHitpoints <= 0) || (weaponDamage < 0))
+            throw new IllegalArgumentException();
+        this.ensureCapacity(this.size + 1);
+        int index = this.size++;
+        this.hitpoints[index] = maxHitpoints;
+        this.maxHitpoints[index] = maxHitpoints;
+        this.damage[index] = Monster.clampDamage(damage);
+        this.protection[index] = protection;
+        this.strength[index] = strength;
+        this.weaponDamage[index] = weaponDamage;
+        return index;
+    }
+
+    //CONVERSION
+    /**
+     * Method to add the combat statistics of the given monster, as they are now, to the pool.
+     *
+     * @param 	monster
+     * @return	The index of the new entry.
+     * 			| old.size()
+     *
+     * @post	The new entry has the hitpoints, maximum hitpoints, damage, protection and strength of the monster,
+     * 			and the damage of its combat weapon.
+     * 			| new.getHitpoints(result) == monster.getHitpoints()
+     * 			| && new.getWeaponDamage(result) == monster.getAttackProfile().getWeaponBonus()
+     *
+     * @throws	IllegalArgumentException
+     * 			The given monster is null.
+     */
+    public int addMonster(Monster monster) throws IllegalArgumentException {
+        if (monster == null)
+            throw new IllegalArgumentException();
+        this.ensureCapacity(this.size + 1);
+        int index = this.size++;
+        this.hitpoints[index] = monster.getHitpoints();
+        this.maxHitpoints[index] = monster.getMaxHitpoints();
+        this.damage[index] = monster.getDamage();
+        this.protection[index] = monster.getProtection();
+        this.strength[index] = monster.getStrength();
+        this.weaponDamage[index] = monster.getAttackProfile().getWeaponBonus();
+        return index;
+    }
+
+    /**
+     * Returns a pool with the combat statistics of the given monsters, in the same order.
+     * @param 	monsters
+     * @return	A pool in which the entry at every index was added from the monster at that index.
+     * 			| for (i in 0..monsters.length-1) result.addMonster(monsters[i]) == i
+     *
+     * @throws	IllegalArgumentException
+     * 			The array or one of the monsters is null.
+     */
+    public static MonsterPool fromMonsters(Monster... monsters) throws IllegalArgumentException {
+        if (monsters == null)
+            throw new IllegalArgumentException();
+        MonsterPool pool = new MonsterPool(monsters.length);
+        for (Monster monster : monsters)
+            pool.addMonster(monster);
+        return pool;
+    }
+
+    /**
+     * Returns a monster with the combat statistics of the entry at the given index.
+     * Since the pool holds no items, the caller provides them; the weapon for the combat anchor must match the weapon damage.
+     *
+     * @param 	index
+     * @param 	name
+     * @param 	nbOfAnchors
+     * @param 	weapon
+     * 			The weapon for the first anchor.
+     * @param 	backpack
+     * 			The backpack for the third anchor.
+     * @param 	combatWeapon
+     * 			The weapon for the combat anchor, or null if the entry has no weapon damage.
+     * @return	A monster with the given name, items and number of anchors, and the damage, protection, maximum hitpoints,
+     * 			strength and hitpoints of the entry.
+     * 			| result.getHitpoints() == getHitpoints(index)
+     *
+     * @effect	The monster is created with full hitpoints, after which the difference is applied as in the method applyDamage().
+     * 			| result.applyDamage(getMaxHitpoints(index) - getHitpoints(index))
+     *
+     * @throws	IllegalArgumentException
+     * 			The monster cannot be created, or the damage of the combat weapon does not match the weapon damage of the entry.
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			The given index is not the index of an entry.
+     * 			| (index < 0) || (index >= size())
+     */
+    public Monster toMonster(int index, String name, int nbOfAnchors, Weapon weapon, Backpack backpack, Weapon combatWeapon)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        this.checkIndex(index);
+        if (((combatWeapon == null) ? 0 : combatWeapon.getDamage()) != this.weaponDamage[index])
+            throw new IllegalArgumentException("The combat weapon does not match the weapon damage of the entry.");
+        Monster monster = new Monster(name, this.damage[index], this.protection[index], this.maxHitpoints[index],
+                this.strength[index], nbOfAnchors, weapon, backpack);
+        if (combatWeapon != null)
+            monster.equipInAnchor(combatWeapon, 1);
+        if (this.hitpoints[index] != this.maxHitpoints[index])
+            monster.applyDamage(this.maxHitpoints[index] - this.hitpoints[index]);
+        return monster;
+    }
+
+    //ACCESS
+    /**
+     * Checks whether the given index is the index of an entry.
+     * @param 	index
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			| (index < 0) || (index >= size())
+     */
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if ((index < 0) || (index >= this.size))
+            throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Checks whether the given range covers only entries.
+     * @param 	from
+     * @param 	to
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			| (from < 0) || (from > to) || (to > size())
+     */
+    void checkRange(int from, int to) throws IndexOutOfBoundsException {
+        if ((from < 0) || (from > to) || (to > this.size))
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for size " + this.size);
+    }
+
+    /**
+     * Returns the current hitpoints of the entry at the given index, without checking the index.
+     * @param 	index
+     * @return	hitpoints[index]
+     *
+     * @pre		| (index >= 0) && (index < size())
+     */
+    int hitpointsAt(int index) {
+        return this.hitpoints[index];
+    }
+
+    /**
+     * Sets the current hitpoints of the entry at the given index, without checking the index or the hitpoints.
+     * @param 	index
+     * @param 	hitpoints
+     *
+     * @pre		| (index >= 0) && (index < size())
+     *
+     * @pre		| Monster.isValidHitpoints(hitpoints, getMaxHitpoints(index))
+     *
+     * @post	| new.getHitpoints(index) == hitpoints
+     */
+    void setHitpointsAt(int index, int hitpoints) {
+        this.hitpoints[index] = hitpoints;
+    }
+
+    /**
+     * Returns the maximum hitpoints of the entry at the given index, without checking the index.
+     * @param 	index
+     * @return	maxHitpoints[index]
+     *
+     * @pre		| (index >= 0) && (index < size())
+     */
+    int maxHitpointsAt(int index) {
+        return this.maxHitpoints[index];
+    }
+
+    /**
+     * Returns the protection factor of the entry at the given index, without checking the index.
+     * @param 	index
+     * @return	protection[index]
+     *
+     * @pre		| (index >= 0) && (index < size())
+     */
+    int protectionAt(int index) {
+        return this.protection[index];
+    }
+
+    /**
+     * Returns the damage of a hit by the entry at the given index, without checking the index.
+     * @param 	index
+     * @return	| Monster.hitDamage(damage[index], strength[index], weaponDamage[index])
+     *
+     * @pre		| (index >= 0) && (index < size())
+     */
+    int hitDamageAt(int index) {
+        return Monster.hitDamage(this.damage[index], this.strength[index], this.weaponDamage[index]);
+    }
+
+    /**
+     * Returns the current hitpoints of the entry at the given index.
+     * @param 	index
+     * @return	hitpoints[index]
+     */
+    public int getHitpoints(int index) {
+        this.checkIndex(index);
+        return this.hitpoints[index];
+    }
+
+    /**
+     * Returns the maximum hitpoints of the entry at the given index.
+     * @param 	index
+     * @return	maxHitpoints[index]
+     */
+    public int getMaxHitpoints(int index) {
+        this.checkIndex(index);
+        return this.maxHitpoints[index];
+    }
+
+    /**
+     * Returns the damage of the entry at the given index.
+     * @param 	index
+     * @return	damage[index]
+     */
+    public int getDamage(int index) {
+        this.checkIndex(index);
+        return this.damage[index];
+    }
+
+    /**
+     * Sets the damage of the entry at the given index as in the method setDamage() of Monster.
+     * @param 	index
+     * @param 	damage
+     *
+     * @post	| new.getDamage(index) == Monster.clampDamage(damage)
+     */
+    public void setDamage(int index, int damage) {
+        this.checkIndex(index);
+        this.damage[index] = Monster.clampDamage(damage);
+    }
+
+    /**
+     * Returns the protection factor of the entry at the given index.
+     * @param 	index
+     * @return	protection[index]
+     */
+    public int getProtection(int index) {
+        this.checkIndex(index);
+        return this.protection[index];
+    }
+
+    /**
+     * Returns the strength of the entry at the given index.
+     * @param 	index
+     * @return	strength[index]
+     */
+    public int getStrength(int index) {
+        this.checkIndex(index);
+        return this.strength[index];
+    }
+
+    /**
+     * Returns the damage of the weapon in the combat anchor of the entry at the given index.
+     * @param 	index
+     * @return	weaponDamage[index]
+     */
+    public int getWeaponDamage(int index) {
+        this.checkIndex(index);
+        return this.weaponDamage[index];
+    }
+
+    /**
+     * Returns the damage of a hit by the entry at the given index.
+     * @param 	index
+     * @return	| Monster.hitDamage(getDamage(index), getStrength(index), getWeaponDamage(index))
+     */
+    public int getHitDamage(int index) {
+        this.checkIndex(index);
+        return Monster.hitDamage(this.damage[index], this.strength[index], this.weaponDamage[index]);
+    }
+
+    /**
+     * Checks whether the entry at the given index has died.
+     * @param 	index
+     * @return	| getHitpoints(index) == 0
+     */
+    public boolean hasDied(int index) {
+        return this.getHitpoints(index) == 0;
+    }
+
+    //TICKS
+    /**
+     * Method to lower the hitpoints of all entries in the given range by the given damage.
+     *
+     * @param 	from
+     * 			The index of the first entry.
+     * @param 	to
+     * 			The index after the last entry.
+     * @param 	damage
+     * @return	The number of entries in the range that have no hitpoints left afterwards.
+     *
+     * @post	Every entry in the range takes the damage as in the method applyDamage() of Monster.
+     * 			| for (i in from..to-1)
+     * 			| 	new.getHitpoints(i) == Monster.hitpointsAfterDamage(getHitpoints(i), getMaxHitpoints(i), damage)
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			| (from < 0) || (from > to) || (to > size())
+     */
+    public int applyDamage(int from, int to, int damage) throws IndexOutOfBoundsException {
+        this.checkRange(from, to);
+        int dead = 0;
+        for (int i = from; i < to; i++) {
+            int remaining = Monster.hitpointsAfterDamage(this.hitpoints[i], this.maxHitpoints[i], damage);
+            this.hitpoints[i] = remaining;
+            if (remaining == 0)
+                dead++;
+        }
+        return dead;
+    }
+
+    /**
+     * Method to let every entry in the given range hit its target once, in order of index.
+     *
+     * @param 	from
+     * 			The index of the first attacker.
+     * @param 	to
+     * 			The index after the last attacker.
+     * @param 	targets
+     * 			The index of the entry hit by every attacker, at the index of that attacker.
+     * @param 	random
+     * 			The generator from which the rolls of the hits are drawn, one per attacker.
+     * @return	The number of hits that left their target without hitpoints.
+     *
+     * @effect	Every attacker hits its target as in the method hitOtherMonster() of Monster.
+     * 			| for (i in from..to-1)
+     * 			|	if (Monster.lands(random.nextInt(0, 31), getHitpoints(i), getProtection(targets[i])))
+     * 			|		then applyDamage(targets[i], targets[i] + 1, getHitDamage(i))
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			The range or a target is out of bounds.
+     */
+    public int hit(int from, int to, int[] targets, RandomGenerator random) throws IndexOutOfBoundsException {
+        this.checkRange(from, to);
+        if (targets.length < to)
+            throw new IndexOutOfBoundsException(to - 1);
+        int kills = 0;
+        for (int i = from; i < to; i++) {
+            int target = targets[i];
+            this.checkIndex(target);
+            if (Monster.lands(random.nextInt(0, Monster.NB_ROLLS), this.hitpoints[i], this.protection[target])) {
+                int damage = Monster.hitDamage(this.damage[i], this.strength[i], this.weaponDamage[i]);
+                this.hitpoints[target] = Monster.hitpointsAfterDamage(this.hitpoints[target], this.maxHitpoints[target], damage);
+                if (this.hitpoints[target] == 0)
+                    kills++;
+            }
+        }
+        return kills;
+    }
+
+    /**
+     * Method to play a fight between two entries on copies of their hitpoints, leaving the pool unchanged.
+     * In every round the first entry hits the second and, if the second is still alive, the second hits the first,
+     * following the rules of the method hitOtherMonster() of Monster, until one of them dies or the maximum number of rounds is reached.
+     *
+     * @param 	first
+     * 			The index of the entry that hits first.
+     * @param 	second
+     * 			The index of the entry that hits second.
+     * @param 	maxRounds
+     * 			The number of rounds after which the fight ends in a draw.
+     * @param 	random
+     * 			The generator from which the rolls of the hits are drawn.
+     * @param 	hitpointsLeft
+     * 			The array in which the hitpoints the first and the second entry have left are stored, at positions 0 and 1.
+     * @return	The number of rounds played, which is zero if one of the entries has died before the fight.
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			One of the indices is not the index of an entry, or the given array has fewer than two elements.
+     */
+    public int fight(int first, int second, int maxRounds, RandomGenerator random, int[] hitpointsLeft) throws IndexOutOfBoundsException {
+        this.checkIndex(first);
+        this.checkIndex(second);
+        if (hitpointsLeft.length < 2)
+            throw new IndexOutOfBoundsException(1);
+        int firstHitpoints = this.hitpoints[first];
+        int secondHitpoints = this.hitpoints[second];
+        int rounds = 0;
+        if ((firstHitpoints > 0) && (secondHitpoints > 0)) {
+            while (rounds < maxRounds) {
+                rounds++;
+                secondHitpoints = this.hitpointsAfterHit(first, firstHitpoints, second, secondHitpoints, random.nextInt(0, Monster.NB_ROLLS));
+                if (secondHitpoints == 0)
+                    break;
+                firstHitpoints = this.hitpointsAfterHit(second, secondHitpoints, first, firstHitpoints, random.nextInt(0, Monster.NB_ROLLS));
+                if (firstHitpoints == 0)
+                    break;
+            }
+        }
+        hitpointsLeft[0] = firstHitpoints;
+        hitpointsLeft[1] = secondHitpoints;
+        return rounds;
+    }
+
+    /**
+     * Returns the hitpoints a target has left after a hit by an attacker with the given roll,
+     * following the rules of the method hitOtherMonster() of Monster.
+     * The hitpoints of both are passed in, so the hit can be played on copies of the hitpoints in the pool.
+     *
+     * @param 	attacker
+     * 			The index of the entry that hits.
+     * @param 	attackerHitpoints
+     * @param 	target
+     * 			The index of the entry that is hit.
+     * @param 	targetHitpoints
+     * @param 	roll
+     * @return	| if (Monster.lands(roll, attackerHitpoints, getProtection(target)))
+     * 			|	then result == Monster.hitpointsAfterDamage(targetHitpoints, getMaxHitpoints(target), getHitDamage(attacker))
+     * 			|	else result == targetHitpoints
+     */
+    int hitpointsAfterHit(int attacker, int attackerHitpoints, int target, int targetHitpoints, int roll) {
+        if (!Monster.lands(roll, attackerHitpoints, this.protection[target]))
+            return targetHitpoints;
+        int damage = Monster.hitDamage(this.damage[attacker], this.strength[attacker], this.weaponDamage[attacker]);
+        return Monster.hitpointsAfterDamage(targetHitpoints, this.maxHitpoints[target], damage);
+    }
+
+    /**
+     * Returns the number of entries in the given range that have not died.
+     * @param 	from
+     * @param 	to
+     * @return	| count(i in from..to-1 : getHitpoints(i) > 0)
+     *
+     * @throws	IndexOutOfBoundsException
+     * 			| (from < 0) || (from > to) || (to > size())
+     */
+    public int countAlive(int from, int to) throws IndexOutOfBoundsException {
+        this.checkRange(from, to);
+        int alive = 0;
+        for (int i = from; i < to; i++) {
+            if (this.hitpoints[i] > 0)
+                alive++;
+        }
+        return alive;
+    }
+}
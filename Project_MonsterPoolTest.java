@@ -0,0 +1,73 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MonsterPoolTest {
+
+	private Monster ork;
+	private Monster elf;
+	private MonsterPool pool;
+
+	@Before
+	public void setUp() throws Exception {
+		ork = Combatants.newCombatant("Ork", 4, 3, 40, 14);
+		elf = Combatants.newCombatant("Elf", 6, 5, 35, 8);
+		ork.equipInAnchor(new Weapon(1, 1, 3, null), 1);
+		pool = MonsterPool.fromMonsters(ork, elf);
+	}
+
+	@Test
+	public final void hit_SameRulesCase() {
+		assertEquals(ork.getAttackProfile().getHitDamage(), pool.getHitDamage(0));
+		SplittableRandom random = new SplittableRandom(9);
+		SplittableRandom poolRandom = new SplittableRandom(9);
+		int[] targets = {1, 0};
+		while (!ork.hasDied() && !elf.hasDied()) {
+			ork.hitOtherMonster(elf, random);
+			pool.hit(0, 1, targets, poolRandom);
+			if (!elf.hasDied()) {
+				elf.hitOtherMonster(ork, random);
+				pool.hit(1, 2, targets, poolRandom);
+			}
+			assertEquals(ork.getHitpoints(), pool.getHitpoints(0));
+			assertEquals(elf.getHitpoints(), pool.getHitpoints(1));
+		}
+		assertEquals(1, pool.countAlive(0, 2));
+	}
+
+	@Test
+	public final void fight_SameRulesCase() {
+		int[] hitpointsLeft = new int[2];
+		int rounds = pool.fight(0, 1, 1000, new SplittableRandom(5), hitpointsLeft);
+		SplittableRandom random = new SplittableRandom(5);
+		int expectedRounds = 0;
+		while (!ork.hasDied() && !elf.hasDied()) {
+			expectedRounds++;
+			ork.hitOtherMonster(elf, random);
+			if (!elf.hasDied())
+				elf.hitOtherMonster(ork, random);
+		}
+		assertEquals(expectedRounds, rounds);
+		assertEquals(ork.getHitpoints(), hitpointsLeft[0]);
+		assertEquals(elf.getHitpoints(), hitpointsLeft[1]);
+		assertEquals(40, pool.getHitpoints(0));
+		assertEquals(35, pool.getHitpoints(1));
+	}
+
+	@Test
+	public final void toMonster_LegalCase() {
+		pool.applyDamage(0, 1, 7);
+		Monster copy = pool.toMonster(0, "Ork", 3, new Weapon(1, 1, 1, null), new Backpack(1, 1, 1, 5, null), new Weapon(1, 1, 3, null));
+		assertEquals(33, copy.getHitpoints());
+		assertEquals(ork.getAttackProfile().getHitDamage(), copy.getAttackProfile().getHitDamage());
+	}
+
+	@Test
+	public final void toMonster_throws_WeaponMismatch() {
+		assertThrows(IllegalArgumentException.class, () -> pool.toMonster(0, "Ork", 3, new Weapon(1, 1, 1, null), new Backpack(1, 1, 1, 5, null), null));
+	}
+}
@@ -1,3 +1,9 @@
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 /**
  * Class of purses as a kind of item. In addition to an ID, weight, value and holder,
  * a purse has a capacity and number of dukats.
@@ -49,49 +55,165 @@ public class Purse extends Item {
         this.setDukats(dukats);
     }
 
+    //IDENTIFICATION
+    /**
+     * Variable referencing all numbers of the Fibonacci series that fit in a long, in increasing order and without repeating 1.
+     */
+    private static final long[] FIBONACCI = fibonacciNumbers();
+
+    /**
+     * Returns all numbers of the Fibonacci series that fit in a long.
+     * @return	The numbers 1, 2, 3, 5, 8, ... up to the largest Fibonacci number below Long.MAX_VALUE.
+     */
+    private static long[] fibonacciNumbers() {
+        long[] numbers = new long[91];
+        numbers[0] = 1;
+        numbers[1] = 2;
+        for (int i = 2; i < numbers.length; i++)
+            numbers[i] = numbers[i-1] + numbers[i-2];
+        return numbers;
+    }
+
+    /**
+     * Variable referencing, for every number of the Fibonacci series, the number of live purses that use it as ID.
+     */
+    private static final AtomicIntegerArray nbPursesWithID = new AtomicIntegerArray(FIBONACCI.length);
+
+    /**
+     * Variable referencing the queue on which registrations of unreachable purses are placed.
+     */
+    private static final ReferenceQueue<Purse> unreachablePurses = new ReferenceQueue<>();
+
+    /**
+     * Variable referencing the registration of the ID of this purse.
+     */
+    private PurseIDReference idReference;
+
     /**
      * Sets ID of a purse to a new ID.
+     * Purse IDs are not required to be unique: only 91 numbers of the Fibonacci series fit in a long,
+     * so purses may share an ID. Whether an ID is shared can be checked with the method hasUniqueID().
+     *
+     * @param	PurseId
      *
-     * @post	If the given ID is negative, the ID of the purse is set to the absolute value of the given ID.
+     * @post	If the given ID is negative, the absolute value of the given ID is used instead.
      * 			| PurseId = Math.abs(PurseId)
      *
-     * @post	If the given ID is zero, the ID of the purse is set to one.
+     * @post	If the given ID is zero, one is used instead.
      * 			| PurseId = 1
      *
-     * @post	If the given ID is not negative, not zero and a number of the Fibonacci series, the ID is set to the given ID.
-     * 			| if(c == PurseId)
-     *          | 	then super.setID(PurseId)
+     * @post	The ID of the purse is set to the smallest number of the Fibonacci series that is not lower than the given ID,
+     * 			or to the largest number of the Fibonacci series that fits in a long if there is no such number.
+     * 			| new.getID() == FIBONACCI[min(fibonacciIndexOf(PurseId), FIBONACCI.length - 1)]
      *
-     * @post	If the given ID is not negative, not zero and not a number of the Fibonacci series, 
-     * 			then the ID is set to a number of the Fibonacci series.
-     * 			| if(c != PurseId)
-     * 			| 	then super.setID(c)
+     * @post	The purse is counted under its new ID instead of under its old ID.
+     * 			| new.getNbPursesWithID(new.getID()) == getNbPursesWithID(new.getID()) + 1
      *
      * @effect	The ID is set using the method setID from the super class Item
      * 			| super.setID(purseID)
      */
     @Override
-    public final void setID(long PurseId){
-        if (PurseId <0){
-            PurseId = Math.abs(PurseId);
-            setID(PurseId);
-        } else if (PurseId == 0) {
-            PurseId = 1;
-            setID(PurseId);
-        } else{
-            long a = 1;
-            long b = 1;
-            long c = 1;
-            while(c < PurseId){
-                c = a+b;
-                a = b;
-                b = c;
-            }
-            if(c == PurseId)
-                super.setID(PurseId);
-            else
-                super.setID(c);
+    public final void setID(long PurseId) {
+        expungeUnreachablePurses();
+        long id = (PurseId == 0) ? 1 : Math.abs(PurseId);
+        int index = (id < 0) ? FIBONACCI.length - 1 : Math.min(fibonacciIndexOf(id), FIBONACCI.length - 1);
+        if ((this.idReference == null) || (this.idReference.index != index)) {
+            nbPursesWithID.incrementAndGet(index);
+            releaseID(this.idReference);
+            this.idReference = new PurseIDReference(this, index);
         }
+        super.setID(FIBONACCI[index]);
+    }
+
+    /**
+     * Returns the position in the Fibonacci series of the smallest Fibonacci number that is not lower than the given ID.
+     * @param 	id
+     * 			A positive ID.
+     * @return	The index of the smallest Fibonacci number not lower than the ID,
+     * 			or the length of the series if the ID is larger than every Fibonacci number that fits in a long.
+     * 			| min{i | FIBONACCI[i] >= id}
+     */
+    private static int fibonacciIndexOf(long id) {
+        int index = Arrays.binarySearch(FIBONACCI, id);
+        return (index >= 0) ? index : -(index + 1);
+    }
+
+    /**
+     * Returns the number of live purses that use the given ID.
+     * @param 	ID
+     * @return	The number of purses with the given ID that have not become unreachable,
+     * 			or zero if the ID is not a number of the Fibonacci series.
+     */
+    public static int getNbPursesWithID(long ID) {
+        expungeUnreachablePurses();
+        int index = Arrays.binarySearch(FIBONACCI, ID);
+        return (index >= 0) ? nbPursesWithID.get(index) : 0;
+    }
+
+    /**
+     * Checks whether the given ID is used by a live purse.
+     * @param 	ID
+     * @return	| getNbPursesWithID(ID) > 0
+     */
+    public static boolean isUsedPurseID(long ID) {
+        return getNbPursesWithID(ID) > 0;
+    }
+
+    /**
+     * Checks whether no other live purse uses the ID of this purse.
+     * @return	| getNbPursesWithID(getID()) == 1
+     */
+    public boolean hasUniqueID() {
+        return getNbPursesWithID(this.getID()) == 1;
+    }
+
+    /**
+     * Method to stop counting the purse of the given registration under its ID.
+     * @param 	reference
+     *
+     * @post	If the given registration is not null, one purse less is counted under its ID.
+     * 			| if (reference != null)
+     * 			|	then new.nbPursesWithID[reference.index] == nbPursesWithID[reference.index] - 1
+     */
+    private static void releaseID(PurseIDReference reference) {
+        if (reference != null) {
+            reference.clear();
+            nbPursesWithID.decrementAndGet(reference.index);
+        }
+    }
+
+    /**
+     * Method to stop counting all purses that have become unreachable since the last call.
+     *
+     * @effect	Every registration on the queue is released as in the method releaseID().
+     * 			| for (reference in unreachablePurses)
+     * 			| 	releaseID(reference)
+     */
+    private static void expungeUnreachablePurses() {
+        Reference<? extends Purse> reference;
+        while ((reference = unreachablePurses.poll()) != null)
+            releaseID((PurseIDReference) reference);
+    }
+
+    /**
+     * Class of registrations of the Fibonacci number used as ID by a purse, without keeping the purse reachable.
+     */
+    private static final class PurseIDReference extends WeakReference<Purse> {
+
+        /**
+         * Create a new registration of the given purse for the Fibonacci number at the given position.
+         * @param 	purse
+         * @param 	index
+         */
+        PurseIDReference(Purse purse, int index) {
+            super(purse, unreachablePurses);
+            this.index = index;
+        }
+
+        /**
+         * Variable referencing the position in the Fibonacci series of the registered ID.
+         */
+        final int index;
     }
 
     /**
@@ -125,16 +247,16 @@ public class Purse extends Item {
      * Sets the number of dukats of a purse to a new number of dukats.
      * @param 	newvalue
      *
-     * @post	If the new number of dukats is higher than or equal to zero
+     * @effect	If the new number of dukats is higher than or equal to zero
      * 			and the new number of dukats is lower than or equal to the capacity of the purse,
-     * 			then the number of dukats will be equal to the given number of dukats.
+     * 			then the number of dukats is updated to the given number of dukats as in the method updateDukats().
      * 			| if(newvalue >= 0 && newvalue <= this.getCapacity())
-     * 			| 	then new.getDukats() == newValue
+     * 			| 	then updateDukats(newvalue)
      *
-     * @post	If the new number of dukats is negative,
-     * 			then the new number of dukats is set to zero.
+     * @effect	If the new number of dukats is negative,
+     * 			then the number of dukats is updated to zero as in the method updateDukats().
      * 			| if(newvalue < 0)
-     * 			|	then new.getDukats() == 0
+     * 			|	then updateDukats(0)
      *
      * @effect	If the new number of dukats is higher than the capacity of the purse,
      * 			the purse is thorn as in the method purseTear().
@@ -144,13 +266,31 @@ public class Purse extends Item {
      */
     private void setDukats(int newvalue){
         if(newvalue >= 0 && newvalue <= this.getCapacity())
-            this.dukats = newvalue;
+            this.updateDukats(newvalue);
         else if (newvalue < 0)
-            this.dukats = 0;
+            this.updateDukats(0);
         else
             this.purseTear();
     }
 
+    /**
+     * Method to change the number of dukats of a purse and notify its holder of the resulting change in weight and value.
+     * @param 	newvalue
+     *
+     * @post	The number of dukats will be equal to the given number of dukats.
+     * 			| new.getDukats() == newvalue
+     *
+     * @effect	If the number of dukats changed, the holder of the purse is notified of the change in weight
+     * 			(50 per dukat) and value (1 per dukat) as in the method notifyHolder().
+     * 			| notifyHolder((newvalue - getDukats())*50, newvalue - getDukats())
+     */
+    private void updateDukats(int newvalue){
+        int delta = newvalue - this.dukats;
+        this.dukats = newvalue;
+        if(delta != 0)
+            notifyHolder(delta*50f, delta);
+    }
+
     /**
      * Method to add dukats to a purse.
      *
@@ -161,7 +301,7 @@ public class Purse extends Item {
      * 			as in the method setDukats().
      * 			| setDukats(this.getDukats() + numberToAdd)
      */
-    private void addDukats(int numberToAdd){
+    void addDukats(int numberToAdd){
         setDukats(this.getDukats() + numberToAdd);
     }
 
@@ -175,7 +315,7 @@ public class Purse extends Item {
      * 			then the dukats are removed as in the method setDukats().
      * 			| setDukats(this.getDukats() - numberToDistract)
      */
-    private void removeDukats(int numberToDistract){
+    void removeDukats(int numberToDistract){
         if (numberToDistract <= this.dukats)
             setDukats(this.getDukats() - numberToDistract);
         else
@@ -0,0 +1,615 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Class of tournaments between monsters, played as a round-robin league or as a single-elimination bracket.
+ * The combat statistics of the participants are copied into a MonsterPool when the tournament starts, and every fight
+ * is played on local copies of those statistics, so the participants themselves are never hit.
+ * A round-robin league is played round by round, and the fights of a round, which are independent, are played in parallel
+ * in chunks on the given executor; the fights of a round are only scheduled once the previous round has finished.
+ * A single-elimination bracket is scheduled as a graph of CompletableFutures, in which a match starts as soon as
+ * the two matches it depends on have finished.
+ * Standings are kept in atomic counters and every finished fight is reported to a listener right away,
+ * so results stream out before the whole tournament has finished.
+ * Every fight draws its rolls from its own generator, derived from the seed and the position of the fight in the schedule,
+ * so a tournament with the same participants and seed always has the same results.
+ *
+ * @invar	Every participant has played as many fights as the sum of its wins, losses and draws.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 1
+ *
+ */
+public final class Tournament {
+
+    /**
+     * Create a new tournament between the given participants, without scheduling any fights.
+     *
+     * @param 	participants
+     * @param 	maxRounds
+     * 			The number of rounds after which a fight ends in a draw.
+     * @param 	seed
+     * 			The seed from which the generators of all fights are derived.
+     * @param 	executor
+     * 			The executor on which the fights are played.
+     * @param 	listener
+     * 			The listener that is told about every finished fight, or null.
+     *
+     * @throws	IllegalArgumentException
+     * 			There are fewer than two participants, a participant is null, the executor is null,
+     * 			or the maximum number of rounds is not positive.
+     */
+    private Tournament(List<Monster> participants, int maxRounds, long seed, Executor executor, FightListener listener)
+            throws IllegalArgumentException {
+        if ((participants == null) || (participants.size() < 2) || (executor == null) || (maxRounds <= 0))
+            throw new IllegalArgumentException();
+        this.participants = List.copyOf(participants);
+        this.stats = MonsterPool.fromMonsters(participants.toArray(new Monster[0]));
+        this.maxRounds = maxRounds;
+        this.seed = seed;
+        this.executor = executor;
+        this.listener = listener;
+        int size = participants.size();
+        this.wins = new AtomicIntegerArray(size);
+        this.losses = new AtomicIntegerArray(size);
+        this.draws = new AtomicIntegerArray(size);
+    }
+
+    /**
+     * Returns a new round-robin league between the given participants, in which every participant fights every other once.
+     * The league is played in rounds in which every participant fights at most once;
+     * a round starts when the previous round has finished, and its fights are split into chunks of FIGHTS_PER_TASK fights
+     * that are played in parallel.
+     *
+     * @param 	participants
+     * @param 	maxRounds
+     * 			The number of rounds after which a fight ends in a draw.
+     * @param 	seed
+     * 			The seed from which the generators of all fights are derived.
+     * @param 	executor
+     * 			The executor on which the fights are played.
+     * @param 	listener
+     * 			The listener that is told about every finished fight, or null.
+     * @return	A tournament whose fights have been scheduled, and whose champion is the participant at the top of the ranking.
+     * 			| result.getChampion().join() == result.getRanking()[0]
+     *
+     * @throws	IllegalArgumentException
+     * 			There are fewer than two participants, a participant is null, the executor is null,
+     * 			or the maximum number of rounds is not positive.
+     *
+     * @throws	IllegalArgumentException
+     * 			There are more than MAX_LEAGUE_SIZE participants.
+     * 			| participants.size() > MAX_LEAGUE_SIZE
+     */
+    public static Tournament roundRobin(List<Monster> participants, int maxRounds, long seed, Executor executor, FightListener listener)
+            throws IllegalArgumentException {
+        if ((participants != null) && (participants.size() > MAX_LEAGUE_SIZE))
+            throw new IllegalArgumentException("A league has at most " + MAX_LEAGUE_SIZE + " participants.");
+        Tournament tournament = new Tournament(participants, maxRounds, seed, executor, listener);
+        tournament.scheduleRoundRobin();
+        return tournament;
+    }
+
+    /**
+     * Returns a new single-elimination bracket between the given participants, seeded in the given order.
+     * The best seeds get a bye in the first round when the number of participants is not a power of two,
+     * and meet each other as late as possible. Every fight waits only for the two fights whose winners it brings together.
+     * A fight that ends in a draw is won, for the bracket, by the participant with the most hitpoints left,
+     * or by the better seed if they have as many.
+     *
+     * @param 	participants
+     * 			The participants, from the best seed to the worst.
+     * @param 	maxRounds
+     * 			The number of rounds after which a fight ends in a draw.
+     * @param 	seed
+     * 			The seed from which the generators of all fights are derived.
+     * @param 	executor
+     * 			The executor on which the fights are played.
+     * @param 	listener
+     * 			The listener that is told about every finished fight, or null.
+     * @return	A tournament whose fights have been scheduled, and whose champion is the winner of the final.
+     *
+     * @throws	IllegalArgumentException
+     * 			There are fewer than two participants, a participant is null, the executor is null,
+     * 			or the maximum number of rounds is not positive.
+     */
+    public static Tournament singleElimination(List<Monster> participants, int maxRounds, long seed, Executor executor, FightListener listener)
+            throws IllegalArgumentException {
+        Tournament tournament = new Tournament(participants, maxRounds, seed, executor, listener);
+        tournament.scheduleSingleElimination();
+        return tournament;
+    }
+
+    /**
+     * Variable referencing the participants of the tournament, in the order in which they were given.
+     */
+    private final List<Monster> participants;
+
+    /**
+     * Variable referencing the combat statistics of the participants when the tournament started.
+     */
+    private final MonsterPool stats;
+
+    /**
+     * Variable referencing the number of rounds after which a fight ends in a draw.
+     */
+    private final int maxRounds;
+
+    /**
+     * Variable referencing the seed from which the generators of all fights are derived.
+     */
+    private final long seed;
+
+    /**
+     * Variable referencing the executor on which the fights are played.
+     */
+    private final Executor executor;
+
+    /**
+     * Variable referencing the listener that is told about every finished fight, or null.
+     */
+    private final FightListener listener;
+
+    /**
+     * Variable referencing the number of fights in the schedule, used to number the fights of a bracket.
+     */
+    private int nbFights;
+
+    /**
+     * Variable referencing the largest number of participants of a league,
+     * for which the number of every fight, which also seeds its generator, still fits in an int.
+     */
+    public static final int MAX_LEAGUE_SIZE = 1 << 16;
+
+    /**
+     * Variable referencing the number of fights of a round of a league that are played by one task.
+     */
+    static final int FIGHTS_PER_TASK = 256;
+
+    /**
+     * Variable referencing the future that completes with the index of the champion once the tournament has finished.
+     */
+    private CompletableFuture<Integer> champion;
+
+    /**
+     * Returns the participants of the tournament.
+     * @return	An unmodifiable list of the participants, in the order in which they were given.
+     */
+    public List<Monster> getParticipants() {
+        return this.participants;
+    }
+
+    /**
+     * Returns the number of fights in the schedule of the tournament.
+     * @return nbFights
+     */
+    public int getNbFights() {
+        return this.nbFights;
+    }
+
+    /**
+     * Returns a future that completes with the index of the champion once every fight of the tournament has finished.
+     * @return champion
+     */
+    public CompletableFuture<Integer> getChampion() {
+        return this.champion;
+    }
+
+    //SCHEDULING
+    /**
+     * Method to schedule all fights of a round-robin league, using the circle method.
+     * With an odd number of participants, one participant sits out every round.
+     * Only the first round is scheduled right away; every round schedules the next one when it has finished.
+     *
+     * @pre		The number of participants is at most MAX_LEAGUE_SIZE, so the number of fights and
+     * 			the number of every fight fit in an int.
+     */
+    private void scheduleRoundRobin() {
+        int size = this.participants.size();
+        this.nbFights = (int) ((long) size * (size - 1) / 2);
+        this.champion = new CompletableFuture<>();
+        this.scheduleRounds(0, size + (size % 2));
+    }
+
+    /**
+     * Method to schedule the rounds of a league from the given round on.
+     * The fights of a round are played in chunks of FIGHTS_PER_TASK fights; rounds whose fights have all finished
+     * by the time they are scheduled are followed by the next round in a loop, and otherwise the next round is
+     * handed to the executor when the last chunk finishes, so the rounds never nest on the stack.
+     * After the last round, the champion is completed with the participant at the top of the ranking,
+     * and if anything is thrown on the way, the champion is completed with it.
+     *
+     * @param 	firstRound
+     * @param 	slots
+     * 			The number of participants, rounded up to an even number.
+     */
+    private void scheduleRounds(int firstRound, int slots) {
+        try {
+            int pairs = slots / 2;
+            for (int round = firstRound; round < slots - 1; round++) {
+                int current = round;
+                CompletableFuture<?>[] chunks = new CompletableFuture<?>[(pairs + FIGHTS_PER_TASK - 1) / FIGHTS_PER_TASK];
+                for (int chunk = 0; chunk < chunks.length; chunk++) {
+                    int from = chunk * FIGHTS_PER_TASK;
+                    int to = Math.min(pairs, from + FIGHTS_PER_TASK);
+                    chunks[chunk] = CompletableFuture.runAsync(() -> this.playRound(current, slots, from, to), this.executor);
+                }
+                CompletableFuture<Void> finished = CompletableFuture.allOf(chunks);
+                if (!finished.isDone()) {
+                    finished.whenCompleteAsync((ignored, exception) -> {
+                        if (exception != null)
+                            this.champion.completeExceptionally(exception);
+                        else
+                            this.scheduleRounds(current + 1, slots);
+                    }, this.executor).exceptionally(exception -> {
+                        this.champion.completeExceptionally(exception);
+                        return null;
+                    });
+                    return;
+                }
+                finished.join();
+            }
+            this.champion.complete(this.getRanking()[0]);
+        } catch (Throwable exception) {
+            this.champion.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Method to play the fights of a round of a league between the pairs at the given positions of the circle.
+     * In round r, position 0 of the circle holds participant 0 and every other position k holds participant
+     * 1 + ((k - 1 - r) mod (slots - 1)); position k is paired with position slots - 1 - k,
+     * and a position holding a participant that does not exist is a bye.
+     *
+     * @param 	round
+     * @param 	slots
+     * 			The number of participants, rounded up to an even number.
+     * @param 	from
+     * 			The first position of the pairs to play.
+     * @param 	to
+     * 			The position after the last position of the pairs to play.
+     */
+    private void playRound(int round, int slots, int from, int to) {
+        int size = this.participants.size();
+        for (int i = from; i < to; i++) {
+            int first = (i == 0) ? 0 : 1 + Math.floorMod(i - 1 - round, slots - 1);
+            int second = 1 + Math.floorMod(slots - 2 - i - round, slots - 1);
+            if ((first < size) && (second < size))
+                this.fight(round * (slots / 2) + i, round, first, second);
+        }
+    }
+
+    /**
+     * Method to schedule all fights of a single-elimination bracket.
+     */
+    private void scheduleSingleElimination() {
+        int size = this.participants.size();
+        int bracket = Integer.highestOneBit(size - 1) << 1;
+        int[] order = {0};
+        while (order.length < bracket) {
+            int[] next = new int[2 * order.length];
+            for (int i = 0; i < order.length; i++) {
+                next[2 * i] = order[i];
+                next[2 * i + 1] = 2 * order.length - 1 - order[i];
+            }
+            order = next;
+        }
+        List<CompletableFuture<Integer>> advancing = new ArrayList<>(bracket);
+        for (int position : order)
+            advancing.add(CompletableFuture.completedFuture((position < size) ? position : -1));
+        for (int round = 0; advancing.size() > 1; round++) {
+            List<CompletableFuture<Integer>> winners = new ArrayList<>(advancing.size() / 2);
+            for (int i = 0; i < advancing.size(); i += 2)
+                winners.add(this.scheduleMatch(round, advancing.get(i), advancing.get(i + 1)));
+            advancing = winners;
+        }
+        this.champion = advancing.get(0);
+    }
+
+    /**
+     * Method to schedule the match between the winners of two earlier matches of a bracket.
+     * @param 	round
+     * @param 	first
+     * 			The future index of the first participant, or -1 for a bye.
+     * @param 	second
+     * 			The future index of the second participant, or -1 for a bye.
+     * @return	A future index of the participant that goes through, or -1 if both sides are byes.
+     */
+    private CompletableFuture<Integer> scheduleMatch(int round, CompletableFuture<Integer> first, CompletableFuture<Integer> second) {
+        if (first.isDone() && second.isDone() && ((first.join() < 0) || (second.join() < 0)))
+            return CompletableFuture.completedFuture(Math.max(first.join(), second.join()));
+        int fightNb = this.nbFights++;
+        return first.thenCombineAsync(second, (a, b) -> {
+            if ((a < 0) || (b < 0))
+                return Math.max(a, b);
+            FightResult result = this.fight(fightNb, round, Math.min(a, b), Math.max(a, b));
+            if (result.getWinner() >= 0)
+                return result.getWinner();
+            return (result.getSecondHitpoints() > result.getFirstHitpoints()) ? result.getSecond() : result.getFirst();
+        }, this.executor);
+    }
+
+    //FIGHTING
+    /**
+     * Plays a fight between two participants on copies of their statistics, records the result and reports it.
+     * The fight is played as in the method fight() of MonsterPool.
+     *
+     * @param 	fightNb
+     * 			The position of the fight in the schedule.
+     * @param 	round
+     * 			The round of the tournament the fight belongs to.
+     * @param 	first
+     * 			The index of the participant that hits first.
+     * @param 	second
+     * 			The index of the participant that hits second.
+     * @return	The result of the fight.
+     *
+     * @effect	The fight is played on the statistics of the participants, with a generator derived from the seed and the fight number.
+     * 			| stats.fight(first, second, maxRounds, CombatEngine.fightRandom(seed, fightNb), hitpointsLeft)
+     *
+     * @effect	The standings are updated as in the method record().
+     * 			| record(result)
+     */
+    private FightResult fight(int fightNb, int round, int first, int second) {
+        int[] hitpointsLeft = new int[2];
+        int rounds = this.stats.fight(first, second, this.maxRounds, CombatEngine.fightRandom(this.seed, fightNb), hitpointsLeft);
+        int winner = -1;
+        if ((hitpointsLeft[0] > 0) && (hitpointsLeft[1] == 0))
+            winner = first;
+        else if ((hitpointsLeft[0] == 0) && (hitpointsLeft[1] > 0))
+            winner = second;
+        FightResult result = new FightResult(round, first, second, winner, rounds, hitpointsLeft[0], hitpointsLeft[1]);
+        this.record(result);
+        return result;
+    }
+
+    //STANDINGS
+    /**
+     * Variable referencing the number of points for a win.
+     */
+    public static final int POINTS_PER_WIN = 3;
+
+    /**
+     * Variable referencing the number of points for a draw.
+     */
+    public static final int POINTS_PER_DRAW = 1;
+
+    /**
+     * Variable referencing the number of fights won by every participant.
+     */
+    private final AtomicIntegerArray wins;
+
+    /**
+     * Variable referencing the number of fights lost by every participant.
+     */
+    private final AtomicIntegerArray losses;
+
+    /**
+     * Variable referencing the number of fights drawn by every participant.
+     */
+    private final AtomicIntegerArray draws;
+
+    /**
+     * Method to add the result of a fight to the standings and report it to the listener.
+     * @param 	result
+     *
+     * @post	The winner has one more win and the loser one more loss, or both have one more draw if there is no winner.
+     *
+     * @effect	If there is a listener, it is told about the result.
+     * 			| if (listener != null)
+     * 			|	then listener.fightFinished(result)
+     *
+     * @note	An exception thrown by the listener is handed to the uncaught exception handler of the current thread,
+     * 			so it cannot stop the fight, later fights or the champion from completing.
+     */
+    private void record(FightResult result) {
+        if (result.getWinner() < 0) {
+            this.draws.incrementAndGet(result.getFirst());
+            this.draws.incrementAndGet(result.getSecond());
+        } else {
+            int loser = (result.getWinner() == result.getFirst()) ? result.getSecond() : result.getFirst();
+            this.wins.incrementAndGet(result.getWinner());
+            this.losses.incrementAndGet(loser);
+        }
+        if (this.listener != null) {
+            try {
+                this.listener.fightFinished(result);
+            } catch (RuntimeException exception) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of fights won so far by the participant at the given index.
+     * @param 	participant
+     */
+    public int getWins(int participant) {
+        return this.wins.get(participant);
+    }
+
+    /**
+     * Returns the number of fights lost so far by the participant at the given index.
+     * @param 	participant
+     */
+    public int getLosses(int participant) {
+        return this.losses.get(participant);
+    }
+
+    /**
+     * Returns the number of fights drawn so far by the participant at the given index.
+     * @param 	participant
+     */
+    public int getDraws(int participant) {
+        return this.draws.get(participant);
+    }
+
+    /**
+     * Returns the number of points scored so far by the participant at the given index.
+     * @param 	participant
+     * @return	| getWins(participant) * POINTS_PER_WIN + getDraws(participant) * POINTS_PER_DRAW
+     */
+    public int getPoints(int participant) {
+        return this.getWins(participant) * POINTS_PER_WIN + this.getDraws(participant) * POINTS_PER_DRAW;
+    }
+
+    /**
+     * Returns the indices of all participants ordered by their standing so far.
+     * @return	The indices ordered by decreasing points, then decreasing wins, then increasing index,
+     * 			taken from one snapshot of the standings while fights may still be going on.
+     */
+    public int[] getRanking() {
+        Integer[] order = new Integer[this.participants.size()];
+        int[] points = new int[order.length];
+        int[] wins = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            points[i] = this.getPoints(i);
+            wins[i] = this.getWins(i);
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> -points[i])
+                .thenComparingInt(i -> -wins[i]).thenComparingInt(i -> i));
+        int[] ranking = new int[order.length];
+        for (int i = 0; i < order.length; i++)
+            ranking[i] = order[i];
+        return ranking;
+    }
+
+    /**
+     * Interface of listeners that are told about every fight of a tournament as soon as it has finished.
+     * Listeners are called from the threads that play the fights, possibly several at the same time.
+     * An exception thrown by a listener is reported to the uncaught exception handler of the thread and otherwise ignored.
+     */
+    public interface FightListener {
+
+        /**
+         * Called when a fight has finished and its result has been added to the standings.
+         * @param 	result
+         */
+        void fightFinished(FightResult result);
+    }
+
+    /**
+     * Class of results of a fight of a tournament.
+     */
+    public static final class FightResult {
+
+        /**
+         * Create a new result of a fight.
+         * @param 	round
+         * @param 	first
+         * @param 	second
+         * @param 	winner
+         * @param 	rounds
+         * @param 	firstHitpoints
+         * @param 	secondHitpoints
+         */
+        FightResult(int round, int first, int second, int winner, int rounds, int firstHitpoints, int secondHitpoints) {
+            this.round = round;
+            this.first = first;
+            this.second = second;
+            this.winner = winner;
+            this.rounds = rounds;
+            this.firstHitpoints = firstHitpoints;
+            this.secondHitpoints = secondHitpoints;
+        }
+
+        /**
+         * Variable referencing the round of the tournament the fight belongs to.
+         */
+        private final int round;
+
+        /**
+         * Variable referencing the index of the participant that hit first.
+         */
+        private final int first;
+
+        /**
+         * Variable referencing the index of the participant that hit second.
+         */
+        private final int second;
+
+        /**
+         * Variable referencing the index of the winner, or -1 if the fight was a draw.
+         */
+        private final int winner;
+
+        /**
+         * Variable referencing the number of rounds of the fight.
+         */
+        private final int rounds;
+
+        /**
+         * Variable referencing the hitpoints the participant that hit first had left.
+         */
+        private final int firstHitpoints;
+
+        /**
+         * Variable referencing the hitpoints the participant that hit second had left.
+         */
+        private final int secondHitpoints;
+
+        /**
+         * Returns the round of the tournament the fight belongs to.
+         * @return round
+         */
+        public int getRound() {
+            return this.round;
+        }
+
+        /**
+         * Returns the index of the participant that hit first.
+         * @return first
+         */
+        public int getFirst() {
+            return this.first;
+        }
+
+        /**
+         * Returns the index of the participant that hit second.
+         * @return second
+         */
+        public int getSecond() {
+            return this.second;
+        }
+
+        /**
+         * Returns the index of the winner, or -1 if the fight was a draw.
+         * @return winner
+         */
+        public int getWinner() {
+            return this.winner;
+        }
+
+        /**
+         * Returns the number of rounds of the fight.
+         * @return rounds
+         */
+        public int getRounds() {
+            return this.rounds;
+        }
+
+        /**
+         * Returns the hitpoints the participant that hit first had left.
+         * @return firstHitpoints
+         */
+        public int getFirstHitpoints() {
+            return this.firstHitpoints;
+        }
+
+        /**
+         * Returns the hitpoints the participant that hit second had left.
+         * @return secondHitpoints
+         */
+        public int getSecondHitpoints() {
+            return this.secondHitpoints;
+        }
+    }
+}
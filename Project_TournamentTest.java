@@ -0,0 +1,92 @@
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TournamentTest {
+
+	private List<Monster> participants;
+	private ForkJoinPool executor;
+
+	@Before
+	public void setUp() throws Exception {
+		participants = new ArrayList<>();
+		for (int i = 0; i < 7; i++)
+			participants.add(Combatants.newCombatant("Npc", 3 + i, 5, 30, 10));
+		executor = new ForkJoinPool(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdown();
+	}
+
+	@Test
+	public final void roundRobin_StandingsCase() {
+		AtomicInteger nbReported = new AtomicInteger();
+		Tournament league = Tournament.roundRobin(participants, 100, 5L, executor, result -> nbReported.incrementAndGet());
+		int champion = league.getChampion().join();
+		assertEquals(21, league.getNbFights());
+		assertEquals(21, nbReported.get());
+		assertEquals(champion, league.getRanking()[0]);
+		for (int i = 0; i < participants.size(); i++) {
+			assertEquals(6, league.getWins(i) + league.getLosses(i) + league.getDraws(i));
+			assertEquals(30, participants.get(i).getHitpoints());
+		}
+	}
+
+	@Test
+	public final void roundRobin_SeededCase() {
+		Tournament league = Tournament.roundRobin(participants, 100, 5L, executor, null);
+		Tournament replay = Tournament.roundRobin(participants, 100, 5L, ForkJoinPool.commonPool(), null);
+		league.getChampion().join();
+		replay.getChampion().join();
+		for (int i = 0; i < participants.size(); i++)
+			assertEquals(replay.getPoints(i), league.getPoints(i));
+	}
+
+	@Test
+	public final void roundRobin_ThrowingListenerCase() {
+		int champion = Tournament.roundRobin(participants, 100, 5L, executor, null).getChampion().join();
+		AtomicInteger nbFailed = new AtomicInteger();
+		ForkJoinPool failing = new ForkJoinPool(2, ForkJoinPool.defaultForkJoinWorkerThreadFactory, (thread, exception) -> nbFailed.incrementAndGet(), false);
+		Tournament broken = Tournament.roundRobin(participants, 100, 5L, failing, result -> {
+			throw new IllegalStateException();
+		});
+		assertEquals(champion, (int) broken.getChampion().join());
+		assertEquals(21, nbFailed.get());
+		failing.shutdown();
+	}
+
+	@Test
+	public final void roundRobin_SameThreadCase() {
+		List<Monster> crowd = Collections.nCopies(2000, Combatants.newCombatant("Npc", 3, 5, 30, 10));
+		Tournament league = Tournament.roundRobin(crowd, 1, 5L, Runnable::run, null);
+		assertTrue(league.getChampion().isDone());
+		league.getChampion().join();
+		assertEquals(1999000, league.getNbFights());
+		for (int i = 0; i < crowd.size(); i += 111)
+			assertEquals(1999, league.getWins(i) + league.getLosses(i) + league.getDraws(i));
+	}
+
+	@Test
+	public final void roundRobin_throws_TooManyParticipants() {
+		List<Monster> crowd = Collections.nCopies(Tournament.MAX_LEAGUE_SIZE + 1, participants.get(0));
+		assertThrows(IllegalArgumentException.class, () -> Tournament.roundRobin(crowd, 1, 5L, executor, null));
+	}
+
+	@Test
+	public final void singleElimination_LegalCase() {
+		Tournament bracket = Tournament.singleElimination(participants.subList(0, 5), 100, 5L, executor, null);
+		assertTrue(bracket.getChampion().join() < 5);
+		assertEquals(4, bracket.getNbFights());
+	}
+}
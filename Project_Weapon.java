@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 /**
  * Class of weapons as a kind of item. 
@@ -36,8 +34,9 @@ public class Weapon extends Item {
      * @effect	The new weapon is initialised as a new item with given value, weight and holder.
      * 			super(weight, value, holder)
      *
-     * @effect	The identification number of the weapon is generated as in the method generateWeaponID()
-     * 			| ID = generateWeaponID()
+     * @effect	Once the weapon is initialised, it is registered under a newly generated identification number
+     * 			as in the method generateWeaponID(), so that no ID is used up when the initialisation fails.
+     * 			| setID(generateWeaponID())
      *
      * @throws 	IllegalArgumentException
      * 			The given weight is not a valid weight.
@@ -48,75 +47,60 @@ public class Weapon extends Item {
      * 			| isValidHolder(holder) == false
      */
     public Weapon(double value, float weight, int damage, ItemHolder holder) throws IllegalArgumentException {
-        super(generateWeaponID(), weight, value, holder);
+        super(0, weight, value, holder);
 
         assert(isValidDamage(damage));
         this.damage = damage;
+        this.setID(this.generateWeaponID());
     }
 
 
     //IDENTIFACATION (total)
     /**
-     * Variable referencing weapon IDs of all instances of Weapon
+     * Variable referencing the registry of weapon IDs of all instances of Weapon
      */
-    private static List<Long> weaponIDs =  new ArrayList<Long>();
+    private static final WeaponIDRegistry weaponIDs = new WeaponIDRegistry();
+
+    /**
+     * Returns the registry of weapon IDs of all instances of Weapon.
+     * @return weaponIDs
+     */
+    public static WeaponIDRegistry getWeaponIDRegistry() {
+        return weaponIDs;
+    }
+
+    /**
+     * Variable referencing the registration of this weapon in the registry of weapon IDs.
+     */
+    private WeaponIDRegistry.Registration registration;
+
+    /**
+     * Returns the registration of this weapon in the registry of weapon IDs.
+     * @return registration
+     */
+    WeaponIDRegistry.Registration getRegistration() {
+        return this.registration;
+    }
 
     /**
      * Method to generate a weapon identification number.
-     * @return 	If the randomly generated ID is not an already existing ID
-     * 			and if the generated ID is larger than or equal to zero and odd,
-     * 			then the weaponID is added to the list of weapon IDs
-     * 			and the generated weaponID is returned.
-     * 			| if(! weaponIDs.contains(weaponID))
-     *			|	 if((weaponID >= 0) && (weaponID%2 != 0))
-     *			|		 then weaponIDs.add(weaponID);
-     *			|			  return weaponID;
-     *
-     * @return 	If the randomly generated ID is not an already existing ID
-     * 			and if the generated ID is smaller than zero and odd,
-     * 			then the absolute value of the weaponID is taken and added to the list of weapon IDs
-     * 			and the weaponID is returned.
-     * 			| if(! weaponIDs.contains(weaponID))
-     * 			| 	if((weaponID < 0) && (weaponID%2 != 0))
-     *			| 		then weaponID = Math.abs(weaponID);
-     *			|			 weaponIDs.add(weaponID);
-     *			|			 return weaponID;
-     *
-     * @return 	If the randomly generated ID is not an already existing ID and if the generated ID is even,
-     * 			then the absolute value of the weaponID is taken and one is added
-     * 			then the weaponID is added to the list of weapon IDs and the weaponID is returned.
-     * 			| if(! weaponIDs.contains(weaponID))
-     * 			| 	if((weaponID%2 == 0))
-     *			| 		then weaponID = Math.abs(weaponID + 1);
-     *			|			 weaponIDs.add(weaponID);
-     *			|			 return weaponID;
-     *
-     * @return	If the randomly generated ID is an already existing ID,
-     * 			then the ID is generated again
-     * 			| if(weaponIDs.contains(weaponID))
-     * 			| 	then weaponID = generateWeaponID()
+     * @return 	A random ID that is odd, positive and not an already existing weapon ID,
+     * 			under which this weapon is registered as in the method register() in WeaponIDRegistry.
+     * 			The ID is given back when the weapon is released or becomes unreachable.
+     * 			| weaponIDs.register(this).getWeaponID()
      */
-    private static long generateWeaponID() {
-        Random r = new Random();
-        long range = Long.MAX_VALUE;
-        long weaponID = (long) (r.nextDouble()*range);
-
-        if(! weaponIDs.contains(weaponID)) {
-            if((weaponID >= 0) && (weaponID%2 != 0)) {
-                weaponIDs.add(weaponID);
-                return weaponID;
-            } else if((weaponID < 0) && (weaponID%2 != 0)) {
-                weaponID = Math.abs(weaponID);
-                weaponIDs.add(weaponID);
-                return weaponID;
-            } else {
-                weaponID = Math.abs(weaponID + 1);
-                weaponIDs.add(weaponID);
-                return weaponID;
-            }
-        } else {
-            return weaponID = generateWeaponID();
-        }
+    private long generateWeaponID() {
+        this.registration = weaponIDs.register(this);
+        return this.registration.getWeaponID();
+    }
+
+    /**
+     * Method to give back the ID of this weapon to the registry of weapon IDs, for instance when the weapon is destroyed.
+     * @effect	The ID is given back as in the method release() in WeaponIDRegistry.
+     * 			| weaponIDs.release(this)
+     */
+    public void releaseID() {
+        weaponIDs.release(this);
     }
     @Override
     /**
@@ -0,0 +1,399 @@
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class of registries that hand out unique, odd and positive weapon identification numbers.
+ * The registered IDs are spread over a fixed number of stripes, each a set of primitive longs with its own lock,
+ * so threads allocating IDs at the same time rarely wait on each other and no value is ever boxed.
+ * IDs of registered weapons are given back when the weapon is released or has become unreachable,
+ * so the memory used by a registry stays proportional to the number of live weapons.
+ *
+ * @invar	Every registered ID is odd and positive.
+ * 			| for each ID in the registry: (ID%2 != 0) && (ID > 0)
+ *
+ * @invar	Every registered ID is registered only once.
+ *
+ * @author Thomas and Paulien
+ *
+ * @version 2
+ *
+ */
+public final class WeaponIDRegistry {
+
+    /**
+     * Create a new, empty registry of weapon IDs.
+     *
+     * @post	The registry holds no IDs.
+     * 			| new.size() == 0
+     */
+    public WeaponIDRegistry() {
+        for (int i = 0; i < NB_STRIPES; i++)
+            this.stripes[i] = new Stripe();
+    }
+
+    //STRIPES
+    /**
+     * Variable referencing the number of stripes of a registry. Must be a power of two.
+     */
+    private static final int NB_STRIPES = 64;
+
+    /**
+     * Variable referencing the stripes over which the IDs of a registry are spread.
+     */
+    private final Stripe[] stripes = new Stripe[NB_STRIPES];
+
+    /**
+     * Returns a well-spread hash of the given ID.
+     * @param 	weaponID
+     * @return	The 64-bit finalizer of MurmurHash3 applied to the ID.
+     */
+    private static long mix(long weaponID) {
+        long hash = weaponID;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the stripe that holds the ID with the given hash, chosen by the highest bits of the hash.
+     * @param 	hash
+     * 			The hash of the ID.
+     */
+    private Stripe stripeOf(long hash) {
+        return this.stripes[(int) (hash >>> (64 - Integer.numberOfTrailingZeros(NB_STRIPES)))];
+    }
+
+    //ALLOCATION
+    /**
+     * Variable referencing the number of IDs handed out by a registry.
+     */
+    private final LongAdder allocations = new LongAdder();
+
+    /**
+     * Variable referencing the number of randomly drawn IDs that were already registered and had to be drawn again.
+     */
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Method to draw and register a new weapon ID.
+     * @return	A random odd and positive ID that was not registered yet.
+     * 			| (result%2 != 0) && (result > 0) && !old.contains(result)
+     *
+     * @post	The returned ID is registered.
+     * 			| new.contains(result)
+     */
+    public long allocate() {
+        this.expungeUnreachable();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long weaponID = (random.nextLong() >>> 1) | 1L;
+            long hash = mix(weaponID);
+            if (stripeOf(hash).add(weaponID, hash)) {
+                this.allocations.increment();
+                return weaponID;
+            }
+            this.collisions.increment();
+        }
+    }
+
+    /**
+     * Method to register a weapon under a new ID.
+     * The ID is given back when the weapon is released or when the weapon has become unreachable.
+     * @param 	weapon
+     * @return	The registration of the weapon, holding its new ID.
+     * 			| result.getWeaponID() == allocate()
+     */
+    public Registration register(Weapon weapon) {
+        Registration registration = new Registration(weapon, this.allocate(), this.queue);
+        this.registrations.add(registration);
+        return registration;
+    }
+
+    /**
+     * Method to give back the ID of the given weapon.
+     * @param 	weapon
+     * @return	True if the weapon was registered in this registry and its ID had not been given back yet.
+     *
+     * @effect	If the weapon was registered, its ID is given back as in the method release(long).
+     * 			| if (registrations.contains(weapon.getRegistration()))
+     * 			|	then release(weapon.getRegistration().getWeaponID())
+     */
+    public boolean release(Weapon weapon) {
+        Registration registration = weapon.getRegistration();
+        if ((registration == null) || !this.registrations.remove(registration))
+            return false;
+        registration.clear();
+        this.releases.increment();
+        return this.release(registration.getWeaponID());
+    }
+
+    /**
+     * Method to give back the given ID, so that it may be handed out again.
+     * @param 	weaponID
+     * @return	True if the ID was registered.
+     *
+     * @post	The ID is no longer registered.
+     * 			| !new.contains(weaponID)
+     */
+    public boolean release(long weaponID) {
+        long hash = mix(weaponID);
+        return stripeOf(hash).remove(weaponID, hash);
+    }
+
+    /**
+     * Checks whether the given ID is registered.
+     * @param 	weaponID
+     * @return	True if the ID was handed out by this registry.
+     */
+    public boolean contains(long weaponID) {
+        long hash = mix(weaponID);
+        return stripeOf(hash).contains(weaponID, hash);
+    }
+
+    /**
+     * Returns the number of IDs registered.
+     * @return	The sum of the sizes of all stripes.
+     */
+    public int size() {
+        this.expungeUnreachable();
+        int size = 0;
+        for (Stripe stripe : this.stripes)
+            size += stripe.size();
+        return size;
+    }
+
+    /**
+     * Returns the number of IDs handed out by this registry.
+     * @return allocations
+     */
+    public long getNbAllocations() {
+        return this.allocations.sum();
+    }
+
+    /**
+     * Returns the number of drawn IDs that were already registered and had to be drawn again.
+     * @return collisions
+     */
+    public long getNbCollisions() {
+        return this.collisions.sum();
+    }
+
+    //RECLAIMING
+    /**
+     * Variable referencing the queue on which registrations of unreachable weapons are placed.
+     */
+    private final ReferenceQueue<Weapon> queue = new ReferenceQueue<>();
+
+    /**
+     * Variable referencing the registrations of weapons whose ID has not been given back yet.
+     */
+    private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Variable referencing the number of IDs given back because their weapon was released.
+     */
+    private final LongAdder releases = new LongAdder();
+
+    /**
+     * Variable referencing the number of IDs given back because their weapon became unreachable.
+     */
+    private final LongAdder reclaims = new LongAdder();
+
+    /**
+     * Method to give back the IDs of all weapons that have become unreachable since the last call.
+     *
+     * @effect	The ID of every registration on the queue that was not given back yet is given back
+     * 			as in the method release(long).
+     * 			| for (registration in queue)
+     * 			|	if (registrations.remove(registration))
+     * 			|		then release(registration.getWeaponID())
+     */
+    private void expungeUnreachable() {
+        Reference<? extends Weapon> reference;
+        while ((reference = this.queue.poll()) != null) {
+            Registration registration = (Registration) reference;
+            if (this.registrations.remove(registration)) {
+                this.release(registration.getWeaponID());
+                this.reclaims.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of IDs given back because their weapon was released.
+     * @return releases
+     */
+    public long getNbReleases() {
+        return this.releases.sum();
+    }
+
+    /**
+     * Returns the number of IDs given back because their weapon became unreachable.
+     * @return reclaims
+     */
+    public long getNbReclaims() {
+        this.expungeUnreachable();
+        return this.reclaims.sum();
+    }
+
+    /**
+     * Returns the fraction of all IDs handed out that were given back, either by release or because the weapon became unreachable.
+     * @return	The number of releases and reclaims divided by the number of allocations, or zero if no ID was handed out.
+     * 			| (getNbReleases() + getNbReclaims()) / getNbAllocations()
+     */
+    public double getReclaimRate() {
+        long allocations = this.getNbAllocations();
+        return (allocations == 0) ? 0 : (double) (this.getNbReclaims() + this.getNbReleases()) / allocations;
+    }
+
+    /**
+     * Class of registrations of a weapon in a registry, holding the ID of the weapon without keeping the weapon reachable.
+     */
+    public static final class Registration extends WeakReference<Weapon> {
+
+        /**
+         * Create a new registration of the given weapon under the given ID.
+         * @param 	weapon
+         * @param 	weaponID
+         * @param 	queue
+         * 			The queue on which the registration is placed once the weapon has become unreachable.
+         */
+        private Registration(Weapon weapon, long weaponID, ReferenceQueue<Weapon> queue) {
+            super(weapon, queue);
+            this.weaponID = weaponID;
+        }
+
+        /**
+         * Variable referencing the ID of the registered weapon.
+         */
+        private final long weaponID;
+
+        /**
+         * Returns the ID of the registered weapon.
+         * @return weaponID
+         */
+        public long getWeaponID() {
+            return this.weaponID;
+        }
+    }
+
+    /**
+     * Class of stripes of a registry: open-addressing sets of non-zero longs with linear probing.
+     * Zero marks an empty slot, which is safe because weapon IDs are odd.
+     */
+    private static final class Stripe {
+
+        /**
+         * Variable referencing the slots of a stripe. Its length is a power of two.
+         */
+        private long[] table = new long[16];
+
+        /**
+         * Variable referencing the number of IDs in a stripe.
+         */
+        private int size;
+
+        /**
+         * Returns the number of IDs in this stripe.
+         * @return size
+         */
+        synchronized int size() {
+            return this.size;
+        }
+
+        /**
+         * Checks whether this stripe holds the given ID.
+         * @param 	weaponID
+         * @param 	hash
+         * 			The hash of the ID.
+         */
+        synchronized boolean contains(long weaponID, long hash) {
+            int mask = this.table.length - 1;
+            for (int i = (int) hash & mask; this.table[i] != 0; i = (i + 1) & mask) {
+                if (this.table[i] == weaponID)
+                    return true;
+            }
+            return false;
+        }
+
+        /**
+         * Method to add the given ID to this stripe.
+         * @param 	weaponID
+         * @param 	hash
+         * 			The hash of the ID.
+         * @return	True if the ID was not in this stripe yet.
+         */
+        synchronized boolean add(long weaponID, long hash) {
+            if (2 * (this.size + 1) > this.table.length)
+                this.resize(2 * this.table.length);
+            int mask = this.table.length - 1;
+            int i = (int) hash & mask;
+            while (this.table[i] != 0) {
+                if (this.table[i] == weaponID)
+                    return false;
+                i = (i + 1) & mask;
+            }
+            this.table[i] = weaponID;
+            this.size++;
+            return true;
+        }
+
+        /**
+         * Method to remove the given ID from this stripe.
+         * The IDs after it in the same run of slots are shifted back, so no markers of removed IDs are left behind.
+         * @param 	weaponID
+         * @param 	hash
+         * 			The hash of the ID.
+         * @return	True if the ID was in this stripe.
+         */
+        synchronized boolean remove(long weaponID, long hash) {
+            int mask = this.table.length - 1;
+            int i = (int) hash & mask;
+            while (this.table[i] != weaponID) {
+                if (this.table[i] == 0)
+                    return false;
+                i = (i + 1) & mask;
+            }
+            for (int j = (i + 1) & mask; this.table[j] != 0; j = (j + 1) & mask) {
+                int home = (int) mix(this.table[j]) & mask;
+                boolean canMove = (j > i) ? ((home <= i) || (home > j)) : ((home <= i) && (home > j));
+                if (canMove) {
+                    this.table[i] = this.table[j];
+                    i = j;
+                }
+            }
+            this.table[i] = 0;
+            this.size--;
+            if ((this.table.length > 16) && (8 * this.size < this.table.length))
+                this.resize(this.table.length / 2);
+            return true;
+        }
+
+        /**
+         * Method to move all IDs of this stripe to a table of the given length.
+         * @param 	length
+         * 			A power of two larger than twice the number of IDs.
+         */
+        private void resize(int length) {
+            long[] old = this.table;
+            this.table = new long[length];
+            int mask = length - 1;
+            for (long weaponID : old) {
+                if (weaponID != 0) {
+                    int i = (int) mix(weaponID) & mask;
+                    while (this.table[i] != 0)
+                        i = (i + 1) & mask;
+                    this.table[i] = weaponID;
+                }
+            }
+        }
+    }
+}
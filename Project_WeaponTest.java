@@ -39,6 +39,24 @@ public class WeaponTest {
 		});
 	}
 	
+	@Test
+	public final void generateWeaponID_UniqueOddCase() {
+		Weapon otherWeapon = new Weapon(10, 5, 5, null);
+		assertTrue(weaponLegal.getID() > 0 && weaponLegal.getID() % 2 != 0);
+		assertTrue(otherWeapon.getID() > 0 && otherWeapon.getID() % 2 != 0);
+		assertTrue(weaponLegal.getID() != otherWeapon.getID());
+		assertTrue(Weapon.getWeaponIDRegistry().contains(otherWeapon.getID()));
+	}
+	
+	@Test
+	public final void releaseID_LegalCase() {
+		Weapon otherWeapon = new Weapon(10, 5, 5, null);
+		long releases = Weapon.getWeaponIDRegistry().getNbReleases();
+		otherWeapon.releaseID();
+		assertFalse(Weapon.getWeaponIDRegistry().contains(otherWeapon.getID()));
+		assertEquals(releases + 1, Weapon.getWeaponIDRegistry().getNbReleases());
+	}
+	
 	@Test
 	public final void setHolder_LegalCase() {
 		weaponLegal.setHolder(null);
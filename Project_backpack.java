@@ -1,6 +1,12 @@
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class of backpacks as a kind of Item.
@@ -103,24 +109,58 @@ public class Backpack extends Item implements ItemHolder {
 
     //CONTENTS (defensive)
     /**
-     * Variable referencing the contents of a backpack.
+     * Variable referencing the contents of a backpack, ordered by weight.
      */
-    private List<Item> contents = new ArrayList<>();
+    private final TreeMap<ContentKey, Item> contents = new TreeMap<>(ContentKey.BY_WEIGHT);
+
+    /**
+     * Variable referencing the contents of a backpack, ordered by value.
+     */
+    private final TreeMap<ContentKey, Item> contentsByValue = new TreeMap<>(ContentKey.BY_VALUE);
+
+    /**
+     * Variable referencing the keys under which the items in a backpack are stored, indexed on the identity of the items.
+     */
+    private final Map<Item, ContentKey> keys = new IdentityHashMap<>();
+
+    /**
+     * Variable referencing a read-only view of the contents of a backpack.
+     */
+    private final Collection<Item> contentsView = Collections.unmodifiableCollection(contents.values());
+
+    /**
+     * Variable referencing the sequence number for the next item stored in a backpack.
+     */
+    private long nextSequence;
+
+    /**
+     * Variable referencing the item with the lowest weight in a backpack.
+     */
+    private Item lowestWeightItem;
+
+    /**
+     * Variable referencing the item with the highest weight in a backpack.
+     */
+    private Item highestWeightItem;
 
     /**
      * Method to equip an item in a backpack.
      *
-     * @post	If the backpack can obtain the given item,
-     * 			then the item is added to the contents of the backpack.
+     * @effect	If the backpack can obtain the given item,
+     * 			then the item is added to the contents of the backpack at the position of its weight
+     * 			as in the method addContent()
      * 			| if(canObtain(item))
-     * 			|	then contents.add(item)
+     * 			|	then addContent(item)
      *
      * @effect	If the backpack can obtain the given item,
      * 			then the holder of the item is set to this backpack using the method setHolder()
      * 			| if(canObtain(item))
      * 			|	then item.setHolder(this)
-     * @effect  The Items in the backpack will get sorted by weight after addition of the new item.
-     *          |contents.sort(Comparator.comparing(Item::getWeight))
+     *
+     * @effect	If the backpack can obtain the given item,
+     * 			then the weight and value of the item are added to the running totals as in the method changeTotals()
+     * 			| if(canObtain(item))
+     * 			|	then changeTotals(item.getWeight(), item.getValue())
      *
      * @throws	IllegalArgumentException
      * 			The item cannot be obtained by the backpack.
@@ -128,22 +168,55 @@ public class Backpack extends Item implements ItemHolder {
      */
     public void equip(Item item) throws IllegalArgumentException {
         if(canObtain(item)){
-            contents.add(item);
+            addContent(item);
             item.setHolder(this);
-            contents.sort(Comparator.comparing(Item::getWeight));
+            changeTotals(item.getWeight(), item.getValue());
         } else
             throw new IllegalArgumentException("Cannot add item to backpack.");
     }
 
     /**
      * A method to equip many items at once.
-     * @post    Each item will get added to the backpack, if the preconditions of the equip method are fulfilled
+     * The whole batch is checked before any item is added, so either all items are added or none are.
+     * @param	items
+     * 			The items to be equipped.
+     *
+     * @effect  Each item is added to the contents of the backpack as in the method addContent(),
+     *          and the holder of each item is set to this backpack using the method setHolder()
      *          |for (item in items)
-     *              equip(item)
+     *          |	addContent(item)
+     *          |	item.setHolder(this)
+     *
+     * @effect	The total weight and value of the items are added to the running totals at once as in the method changeTotals()
+     * 			| changeTotals(sum(item.getWeight()), sum(item.getValue()))
+     *
+     * @throws	IllegalArgumentException
+     * 			One of the items is null, cannot be carried, already has a holder, contains this backpack or occurs more than once in the batch.
+     * 			| for some item in items: (item == null) || !item.isCarriable() || (item.getHolder() != null) || isWithin(item)
+     *
+     * @throws	IllegalArgumentException
+     * 			The total weight of the items exceeds the room left in this backpack or in one of its holders.
+     * 			| hasRoomFor(sum(item.getWeight())) == false
      */
-    public void equipMany(Item... items){
-        for (Item item : items)
-            equip(item);
+    public void equipMany(Item... items) throws IllegalArgumentException {
+        Set<Item> batch = Collections.newSetFromMap(new IdentityHashMap<>(items.length));
+        double totalWeight = 0;
+        double totalValue = 0;
+        for (Item item : items) {
+            if ((item == null) || !item.isCarriable() || (item.getHolder() != null) || isWithin(item) || !batch.add(item))
+                throw new IllegalArgumentException("Cannot add items to backpack.");
+            totalWeight += item.getWeight();
+            totalValue += item.getValue();
+        }
+        if (!hasRoomFor((float) totalWeight))
+            throw new IllegalArgumentException("Cannot add items to backpack.");
+
+        for (Item item : items) {
+            addContent(item);
+            item.setHolder(this);
+        }
+        if (items.length > 0)
+            changeTotals((float) totalWeight, totalValue);
     }
 
     /**
@@ -152,36 +225,69 @@ public class Backpack extends Item implements ItemHolder {
      * @param	item
      * 			Item to be checked
      *
-     * @return	True if the item is not null, the holder of the item is null, 
-     * 			the weight of the item does not exceed the remaining capacity of the backpack
-     * 			and if the holder of this backpack is an instance of Backpack, if the holder of the backpack can obtain the item.
-     * 			| (item != null) && (item.getHolder() == null)  && (this.getCapacity() - this.getContentWeight()) >= item.getWeight()) == true
-     * 			| if (this.getHolder() instanceof Backpack) == true
-     * 			| 	(this.getHolder().canObtain(item)) == true
-     * 
-     * @return	True if the item is not null, the holder of the item is null, 
-     * 			the weight of the item does not exceed the remaining capacity of the backpack
-     * 			and if the holder of this backpack is an instance of Monster, if the holder can obtain this item.
-     *			| (item != null) && (item.getHolder() == null)  && (this.getCapacity() - this.getContentWeight()) >= item.getWeight()) == true
-     * 			| if (this.getHolder() instanceof Backpack) == true
-     * 			| 	(this.getHolder().canObtain(item)) == true
-     * 
-     * @return	True if the item is not null, the holder of the item is null, 
-     * 			the weight of the item does not exceed the remaining capacity of the backpack
-     * 			and the holder is not an instance of Monster or Backpack.
-     * 			| (item != null) && (item.getHolder() == null)  && (this.getCapacity() - this.getContentWeight()) >= item.getWeight()) == true
-     * 			| (this.getHolder() instanceof Backpack) == false
-     * 			| (this.getHolder() instanceof Monster) == false
-     * 
+     * @return	True if the item is not null and can be carried, the holder of the item is null,
+     * 			this backpack is not the item itself and does not lie inside the item,
+     * 			and this backpack and all of its holders have room for the weight of the item.
+     * 			| (item != null) && item.isCarriable() && (item.getHolder() == null) && !isWithin(item) && hasRoomFor(item.getWeight())
      */
     public boolean canObtain(Item item){
+        return (item != null) && item.isCarriable() && (item.getHolder() == null) && !isWithin(item) && hasRoomFor(item.getWeight());
+    }
+
+    /**
+     * Checks whether a backpack is the given item or lies inside it.
+     * @param	item
+     * 			An item without a holder.
+     * @return	True if the given item is this backpack or the outermost holder of this backpack.
+     * 			| (item == this) || (this.getRootHolder() == item)
+     */
+    private boolean isWithin(Item item) {
+        return (item == this) || (this.getRootHolder() == item);
+    }
+
+    /**
+     * Sets the outermost holder of this backpack and of everything inside it.
+     * @param	root
+     *
+     * @effect	The outermost holder of this backpack is set as in the method setRoot() in Item.
+     * 			| super.setRoot(root)
+     *
+     * @effect	The outermost holder of every item in the contents is set to the given holder,
+     * 			or to this backpack if the given holder is null.
+     * 			| for (item in getContents())
+     * 			| 	item.setRoot((root != null) ? root : this)
+     */
+    @Override
+    void setRoot(ItemHolder root) {
+        super.setRoot(root);
+        ItemHolder contentRoot = (root != null) ? root : this;
+        for (Item item : this.contents.values())
+            item.setRoot(contentRoot);
+    }
+
+    /**
+     * Checks whether a backpack and all of its holders have room for the given weight.
+     *
+     * @param	weight
+     * 			Weight to be checked.
+     *
+     * @return	True if the weight does not exceed the remaining capacity of the backpack
+     * 			and, if the holder of this backpack is a backpack, that backpack has room for the weight,
+     * 			or, if the holder of this backpack is a monster, that monster can carry the weight.
+     * 			| ((this.getCapacity() - this.getContentWeight()) >= weight)
+     * 			| && if (this.getHolder() instanceof Backpack)
+     * 			| 	then ((Backpack) this.getHolder()).hasRoomFor(weight)
+     * 			| && if (this.getHolder() instanceof Monster)
+     * 			| 	then ((Monster) this.getHolder()).canCarry(weight)
+     */
+    boolean hasRoomFor(float weight) {
         boolean valid = false;
-        if ((item != null) && item.getHolder() == null && (this.getCapacity() - this.getContentWeight()) >= item.getWeight()){
+        if ((this.getCapacity() - this.getContentWeight()) >= weight){
             if (this.getHolder() instanceof Backpack){
-                if (this.getHolder().canObtain(item))
+                if (((Backpack) this.getHolder()).hasRoomFor(weight))
                     valid = true;
             } else if (this.getHolder() instanceof Monster){
-                if (((Monster)this.getHolder()).canEquip(item))
+                if (((Monster) this.getHolder()).canCarry(weight))
                     valid = true;
             } else {
                 valid = true;
@@ -192,11 +298,11 @@ public class Backpack extends Item implements ItemHolder {
 
     /**
      * Checks if the given item is in the backpack.
-     * @return	True if the contents of the backpack contain the given item.
-     * 			| this.contents.contains(item)
+     * @return	True if the identity index of the backpack contains the given item.
+     * 			| keys.containsKey(item)
      */
     public boolean hasAsEquipment(Item item) {
-        return (this.contents.contains(item));
+        return this.keys.containsKey(item);
     }
 
     /**
@@ -204,37 +310,231 @@ public class Backpack extends Item implements ItemHolder {
      * @param 	item
      * 			The item to be removed.
      *
-     * @post	If the contents of the backpack contain the given item,
-     * 			then the item is removed from the contents.
-     *			| if(contents.contains(item))
-     *       	| 	then contents.remove(item)
+     * @effect	If the backpack has the given item as equipment,
+     * 			then the item is removed from the contents as in the method removeContent().
+     *			| if(hasAsEquipment(item))
+     *       	| 	then removeContent(item)
      *
-     * @effect	If the contents of the backpack contain the given item,
+     * @effect	If the backpack has the given item as equipment,
      * 			then the holder of the item is set to null using the setHolder() method.
-     * 			| if(contents.contains(item))
+     * 			| if(hasAsEquipment(item))
      * 			| 	then item.setHolder(null)
      *
+     * @effect	If the backpack has the given item as equipment,
+     * 			then the weight and value of the item are subtracted from the running totals as in the method changeTotals()
+     * 			| if(hasAsEquipment(item))
+     * 			| 	then changeTotals(-item.getWeight(), -item.getValue())
+     *
      * @throws 	IllegalArgumentException
      * 			The given item is not in the contents of the backpack.
-     * 			| contents.contains(item) == false
+     * 			| hasAsEquipment(item) == false
      */
     public void removeItem(Item item) throws IllegalArgumentException {
-        if(getContents().contains(item)){
-            contents.remove(item);
+        if(hasAsEquipment(item)){
+            removeContent(item);
             item.setHolder(null);
+            changeTotals(-item.getWeight(), -item.getValue());
         } else
             throw new IllegalArgumentException("Item is not in backpack.");
     }
 
     /**
-     * Returns contents of this backpack.
-     * @return contents
+     * Returns a read-only view of the contents of this backpack, ordered by weight.
+     * @return contentsView
+     */
+    public Collection<Item> getContents() {
+        return this.contentsView;
+    }
+
+    /**
+     * Returns a lazy, depth-first stream of all items in this backpack, including the contents of nested backpacks.
+     * The stream can be made parallel, in which case the items are split over the available cores.
+     * @return	A stream over a HeldItemSpliterator of this backpack.
+     * 			| StreamSupport.stream(HeldItemSpliterator.of(this), false)
+     */
+    public Stream<Item> streamAllItems() {
+        return StreamSupport.stream(HeldItemSpliterator.of(this), false);
+    }
+
+    /**
+     * Returns a lazy stream of the IDs of all items in this backpack, including the contents of nested backpacks.
+     * @return	The IDs of the items visited by streamAllItems().
+     * 			| streamAllItems().mapToLong(Item::getID)
+     */
+    public LongStream streamAllItemIDs() {
+        return this.streamAllItems().mapToLong(Item::getID);
+    }
+
+    /**
+     * Returns a read-only view of the items in this backpack with a weight in the given range, ordered by weight.
+     * The view is backed by the contents of the backpack and is not copied.
+     * @param 	minWeight
+     * 			The lowest weight in the range (inclusive).
+     * @param 	maxWeight
+     * 			The highest weight in the range (inclusive).
+     * @return	The items with a weight between the given weights.
+     * 			| {item in getContents() | minWeight <= item.getWeight() <= maxWeight}
+     * @throws	IllegalArgumentException
+     * 			The lowest weight is higher than the highest weight.
+     * 			| minWeight > maxWeight
+     */
+    public Collection<Item> getItemsWithWeightBetween(float minWeight, float maxWeight) throws IllegalArgumentException {
+        return Collections.unmodifiableCollection(this.contents.subMap(
+                ContentKey.lowestWithWeight(minWeight), true, ContentKey.highestWithWeight(maxWeight), true).values());
+    }
+
+    /**
+     * Returns a read-only view of the items in this backpack with a value in the given range, ordered by value.
+     * The view is backed by the contents of the backpack and is not copied.
+     * @param 	minValue
+     * 			The lowest value in the range (inclusive).
+     * @param 	maxValue
+     * 			The highest value in the range (inclusive).
+     * @return	The items with a value between the given values.
+     * 			| {item in getContents() | minValue <= item.getValue() <= maxValue}
+     * @throws	IllegalArgumentException
+     * 			The lowest value is higher than the highest value.
+     * 			| minValue > maxValue
+     */
+    public Collection<Item> getItemsWithValueBetween(double minValue, double maxValue) throws IllegalArgumentException {
+        return Collections.unmodifiableCollection(this.contentsByValue.subMap(
+                ContentKey.lowestWithValue(minValue), true, ContentKey.highestWithValue(maxValue), true).values());
+    }
+
+    /**
+     * Returns a read-only view of the items in this backpack that are worth more than the given value, ordered by value.
+     * The view is backed by the contents of the backpack and is not copied.
+     * @param 	value
+     * 			The value the items must exceed.
+     * @return	The items with a value higher than the given value.
+     * 			| {item in getContents() | item.getValue() > value}
      */
-    public List<Item> getContents() {
-        return this.contents;
+    public Collection<Item> getItemsWorthMoreThan(double value) {
+        return Collections.unmodifiableCollection(this.contentsByValue.tailMap(
+                ContentKey.highestWithValue(value), false).values());
+    }
+
+    /**
+     * Method to store an item in the contents of a backpack under a key with its current weight and value.
+     * @param 	item
+     * 			The item to be stored.
+     * @param 	sequence
+     * 			The sequence number that orders the item among items of equal weight.
+     *
+     * @post	The item is stored in the contents, the value index and the identity index
+     * 			under a new key with the current weight and value of the item.
+     * 			| new.contents.get(new.keys.get(item)) == item
+     * 			| new.contentsByValue.get(new.keys.get(item)) == item
+     * 			| new.keys.get(item).weight == item.getWeight()
+     * 			| new.keys.get(item).value == item.getValue()
+     *
+     * @post	If the item is lighter than the lowest weight item or heavier than the highest weight item,
+     * 			it becomes the new lowest or highest weight item.
+     * 			| new.getLowestWeightItem() == contents.firstEntry().getValue()
+     * 			| new.getHighestWeightItem() == contents.lastEntry().getValue()
+     */
+    private void storeContent(Item item, long sequence) {
+        ContentKey key = new ContentKey(item.getWeight(), item.getValue(), sequence);
+        this.contents.put(key, item);
+        this.contentsByValue.put(key, item);
+        this.keys.put(item, key);
+        if ((this.lowestWeightItem == null) || (ContentKey.BY_WEIGHT.compare(key, this.keys.get(this.lowestWeightItem)) < 0))
+            this.lowestWeightItem = item;
+        if ((this.highestWeightItem == null) || (ContentKey.BY_WEIGHT.compare(key, this.keys.get(this.highestWeightItem)) > 0))
+            this.highestWeightItem = item;
+    }
+
+    /**
+     * Method to add an item to the contents of a backpack, after all items of equal weight.
+     * @param 	item
+     * 			The item to be added.
+     *
+     * @effect	The item is stored with the next sequence number of this backpack as in the method storeContent().
+     * 			| storeContent(item, nextSequence++)
+     */
+    private void addContent(Item item) {
+        storeContent(item, this.nextSequence++);
+    }
+
+    /**
+     * Method to remove an item from the contents of a backpack.
+     * @param 	item
+     * 			The item to be removed.
+     * @return	The key under which the item was stored.
+     *
+     * @post	The item is no longer stored in the contents, the value index or the identity index.
+     * 			| new.hasAsEquipment(item) == false
+     *
+     * @post	If the item was the lowest or highest weight item, the lowest or highest weight item is looked up again.
+     * 			| new.getLowestWeightItem() == contents.firstEntry().getValue()
+     * 			| new.getHighestWeightItem() == contents.lastEntry().getValue()
+     */
+    private ContentKey removeContent(Item item) {
+        ContentKey key = this.keys.remove(item);
+        this.contents.remove(key);
+        this.contentsByValue.remove(key);
+        if (item == this.lowestWeightItem) {
+            Map.Entry<ContentKey, Item> first = this.contents.firstEntry();
+            this.lowestWeightItem = (first == null) ? null : first.getValue();
+        }
+        if (item == this.highestWeightItem) {
+            Map.Entry<ContentKey, Item> last = this.contents.lastEntry();
+            this.highestWeightItem = (last == null) ? null : last.getValue();
+        }
+        return key;
+    }
+
+    /**
+     * Method to update a backpack after the weight and/or value of one of the items in its contents has changed.
+     * @param 	item
+     * 			The item of which the weight and/or value changed.
+     * @param 	weightDelta
+     * 			The change in weight of the item.
+     * @param 	valueDelta
+     * 			The change in value of the item.
+     *
+     * @effect	If the weight or value of the item changed, the item is re-positioned in the contents according to its
+     * 			new weight and value, keeping its place among items of equal weight or value.
+     * 			| if((weightDelta != 0) || (valueDelta != 0))
+     * 			| 	then storeContent(item, removeContent(item).sequence)
+     *
+     * @effect	The running totals are updated as in the method changeTotals().
+     * 			| changeTotals(weightDelta, valueDelta)
+     */
+    void contentChanged(Item item, float weightDelta, double valueDelta) {
+        if (((weightDelta != 0) || (valueDelta != 0)) && hasAsEquipment(item))
+            storeContent(item, removeContent(item).sequence);
+        changeTotals(weightDelta, valueDelta);
+    }
+
+    /**
+     * Method to update the running weight and value totals of the contents of a backpack.
+     * @param 	weightDelta
+     * 			The change in weight of the contents.
+     * @param 	valueDelta
+     * 			The change in value of the contents.
+     *
+     * @post	The content weight of the backpack is increased by the given weight delta.
+     * 			| new.getContentWeight() == getContentWeight() + weightDelta
+     *
+     * @post	The value of the backpack is increased by the given value delta.
+     * 			| new.getValue() == getValue() + valueDelta
+     *
+     * @effect	The holder of the backpack is notified of the change as in the method notifyHolder(),
+     * 			since the weight and value of the backpack itself change with its contents.
+     * 			| notifyHolder(weightDelta, valueDelta)
+     */
+    private void changeTotals(float weightDelta, double valueDelta) {
+        this.contentWeight += weightDelta;
+        this.contentValue += valueDelta;
+        notifyHolder(weightDelta, valueDelta);
     }
 
     //WEIGHT
+    /**
+     * Variable referencing the total weight of the contents of a backpack.
+     */
+    private double contentWeight;
 
     /**
      * Returns the weight of the content of a backpack.
@@ -242,16 +542,7 @@ public class Backpack extends Item implements ItemHolder {
      * 			| contentWeight += content.getWeight()
      */
     public float getContentWeight() {
-        float contentWeight = 0;
-        if(this.contents == null) {
-        	contentWeight = 0;
-        }
-        else if(this.contents != null) {
-        	for(Item content: contents) {
-            contentWeight += content.getWeight();
-        	}
-        }
-        return contentWeight;
+        return (float) this.contentWeight;
     }
 
     /**
@@ -272,20 +563,22 @@ public class Backpack extends Item implements ItemHolder {
 
     /**
      * A method to get the lowest weight item in the backpack.
-     * @return the first item of the backpack, which is sorted on weight, so the lowest weight item.
-     *         |contents.get(0)
+     * @return the first item of the backpack, which is sorted on weight, so the lowest weight item,
+     *         or null if the backpack is empty.
+     *         |contents.firstEntry().getValue()
      */
     public Item getLowestWeightItem(){
-        return this.contents.get(0);
+        return this.lowestWeightItem;
     }
 
     /**
      * A method to get the highest weight item in the backpack.
-     * @return the last item of the backpack, which is sorted on weight, so the highest weight item.
-     *         |contents.get(contents.size-1)
+     * @return the last item of the backpack, which is sorted on weight, so the highest weight item,
+     *         or null if the backpack is empty.
+     *         |contents.lastEntry().getValue()
      */
     public Item getHighestWeightItem(){
-        return this.contents.get(this.contents.size()-1);
+        return this.highestWeightItem;
     }
 
     //CAPACITY
@@ -314,15 +607,19 @@ public class Backpack extends Item implements ItemHolder {
         return(capacity >= 0);
     }
 
+    //VALUE
+    /**
+     * Variable referencing the total value of the contents of a backpack.
+     */
+    private double contentValue;
+
     /**
      * Returns value of the backpack as a sum of the values of all items in its content.
+     * @return	The value of the backpack itself plus the value of its contents.
+     * 			| super.getValue() + contentValue
      */
     public double getValue(){
-        double value = super.getValue();
-        for (Item item : contents){
-            value += item.getValue();
-        }
-        return value;
+        return super.getValue() + this.contentValue;
     }
 
     /**
@@ -127,14 +127,20 @@ public abstract class Item {
      * @post	The value of an item will be equal to the given value.
      * 			| new.getValue() == value
      *
+     * @effect	The holder of this item is notified of the change in value as in the method notifyHolder().
+     * 			| notifyHolder(0, value - getValue())
+     *
      * @throws 	IllegalArgumentException
      * 			The given value is not a valid value.
      * 			| isValidValue(value) == false
      */
     public void setValue(double value) throws IllegalArgumentException {
-        if(isValidValue(value))
+        if(isValidValue(value)) {
+            double valueDelta = value - this.value;
             this.value = value;
-        else
+            if(valueDelta != 0)
+                notifyHolder(0, valueDelta);
+        } else
             throw new IllegalArgumentException();
     }
 
@@ -178,18 +184,66 @@ public abstract class Item {
     }
 
     /**
-     * Returns indirect holder of an item.
+     * Returns indirect holder of an item, being the monster that holds the item directly or through nested backpacks.
      * @param item
-     * @return holder
+     * @return 	The owner of the given item.
+     * 			| item.getOwner()
      */
-    //NOT TOO SURE HOW THIS WORKS AND THEREFORE NOT TOO SURE ABOUT THE DOCUMENTATION
     public static Monster getIndirectHolder(Item item){
-        ItemHolder holder = item.getHolder();
-        if (holder instanceof Backpack){
-            item = (Item) holder;
-            getIndirectHolder(item);
-        }
-        return (Monster) holder;
+        return item.getOwner();
+    }
+
+    /**
+     * Variable referencing the outermost holder of this item, or null if this item has no holder.
+     */
+    private ItemHolder root;
+
+    /**
+     * Returns the outermost holder of this item: the monster or holder-less backpack at the top of the chain of holders.
+     * @return root
+     */
+    public ItemHolder getRootHolder() {
+        return this.root;
+    }
+
+    /**
+     * Returns the monster that holds this item directly or through nested backpacks.
+     * @return	The outermost holder of this item if it is a monster, null otherwise.
+     * 			| if (getRootHolder() instanceof Monster)
+     * 			| 	then result == getRootHolder()
+     * 			| else result == null
+     */
+    public Monster getOwner() {
+        return (this.root instanceof Monster) ? (Monster) this.root : null;
+    }
+
+    /**
+     * Sets the outermost holder of this item to the given holder.
+     * @param 	root
+     *
+     * @post	The outermost holder of this item will be equal to the given holder.
+     * 			| new.getRootHolder() == root
+     */
+    void setRoot(ItemHolder root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the outermost holder an item gets when it is held by the given holder.
+     * @param 	holder
+     * @return	Null if the holder is null, the outermost holder of the holder if the holder is an item with a holder,
+     * 			and the holder itself otherwise.
+     * 			| if (holder == null)
+     * 			| 	then result == null
+     * 			| else if ((holder instanceof Item) && (((Item) holder).getRootHolder() != null))
+     * 			| 	then result == ((Item) holder).getRootHolder()
+     * 			| else result == holder
+     */
+    static ItemHolder rootOf(ItemHolder holder) {
+        if ((holder instanceof Item) && (((Item) holder).getRootHolder() != null))
+            return ((Item) holder).getRootHolder();
+        else
+            return holder;
     }
 
     /**
@@ -197,16 +251,49 @@ public abstract class Item {
      *
      * @param holder
      *
-     * @post
+     * @post	The holder of this item will be equal to the given holder.
+     * 			| new.getHolder() == holder
+     *
+     * @effect	The outermost holder of this item, and of everything inside it, is set as in the method setRoot()
+     * 			| setRoot(rootOf(holder))
+     *
+     * @effect	If the given holder does not have this item as equipment yet, the holder equips this item.
+     * 			| if((holder != null) && (!holder.hasAsEquipment(this)))
+     * 			| 	then holder.equip(this)
      *
      * @throws IllegalArgumentException
      */
     public void setHolder(ItemHolder holder) throws IllegalArgumentException {
         this.holder = holder;
+        this.setRoot(rootOf(holder));
         if((holder != null) && (!holder.hasAsEquipment(this)))
             holder.equip(this);
     }
 
+    /**
+     * Notifies the holder of this item that the weight and/or value of this item has changed.
+     * @param 	weightDelta
+     * 			The change in weight of this item.
+     * @param 	valueDelta
+     * 			The change in value of this item.
+     *
+     * @effect	If the holder of this item is a backpack, the running totals of that backpack are updated
+     * 			as in the method contentChanged() in Backpack.
+     * 			| if (getHolder() instanceof Backpack)
+     * 			| 	then ((Backpack) getHolder()).contentChanged(this, weightDelta, valueDelta)
+     *
+     * @effect	If the holder of this item is a monster, the equipment load and value of that monster are updated
+     * 			as in the method equipmentChanged() in Monster.
+     * 			| if (getHolder() instanceof Monster)
+     * 			| 	then ((Monster) getHolder()).equipmentChanged(weightDelta, valueDelta)
+     */
+    void notifyHolder(float weightDelta, double valueDelta) {
+        if (this.getHolder() instanceof Backpack)
+            ((Backpack) this.getHolder()).contentChanged(this, weightDelta, valueDelta);
+        else if (this.getHolder() instanceof Monster)
+            ((Monster) this.getHolder()).equipmentChanged(weightDelta, valueDelta);
+    }
+
     /**
      * Checks if an item has a holder that is not null.
      * @param item
@@ -227,6 +314,14 @@ public abstract class Item {
         return (this.getHolder() == monster);
     }
 
+    /**
+     * Checks whether this item can be given a holder at all.
+     * @return	True; items that must stay free-standing return false.
+     */
+    boolean isCarriable() {
+        return true;
+    }
+
     /**
      * Checks if the given holder is a valid holder for the item.
      * @param holder
@@ -1,7 +1,15 @@
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 //import be.kuleuven.cs.som.annotate.*;
@@ -108,6 +116,9 @@ public class Monster implements ItemHolder {
      * @effect 	The holder of the given backpack is set to this monster as in the method setHolder()
      * 			| backpack.setHolder(this)
      *
+     * @effect	The other given items are equipped in the given backpack at once as in the method equipMany()
+     * 			| backpack.equipMany(items)
+     *
      * @throws IllegalArgumentException
      * 			Throws exception if the given name is not a valid name.
      * 			| ! isValidName(name)
@@ -151,9 +162,7 @@ public class Monster implements ItemHolder {
         } else
             throw new IllegalArgumentException();
 
-        for(Item item : items){
-            backpack.equip(item);
-        }
+        backpack.equipMany(items);
     }
 
     //NAME
@@ -226,14 +235,30 @@ public class Monster implements ItemHolder {
      * 			the damage is set to the minimum damage.
      * 			| if (damage < MIN_DAMAGE)
      * 			| then new.getDamage() = MIN_DAMAGE
+     *
+     * @post	The attack profile of this monster reflects the new damage.
+     * 			| new.getAttackProfile().getBaseDamage() == new.getDamage() + (getStrength() - 5) / 3
      */
     public void setDamage(int damage) {
-        if((damage >= MIN_DAMAGE) && (damage <= this.getMaxDamage())) {
-            this.damage = damage;
+        this.damage = clampDamage(damage);
+        this.attackProfile = null;
+    }
+
+    /**
+     * Returns the damage a monster gets when its damage is set to the given damage.
+     * Shared by all representations of monsters, so they follow the same rules.
+     * @param 	damage
+     * @return	The given damage if it lies between the minimum and maximum damage,
+     * 			the minimum damage if it is lower and the maximum damage if it is higher.
+     * 			| max(MIN_DAMAGE, min(damage, MAX_DAMAGE))
+     */
+    static int clampDamage(int damage) {
+        if((damage >= MIN_DAMAGE) && (damage <= MAX_DAMAGE)) {
+            return damage;
         } else if(damage < MIN_DAMAGE) {
-            this.damage = MIN_DAMAGE;
+            return MIN_DAMAGE;
         } else {
-            this.damage = getMaxDamage();
+            return MAX_DAMAGE;
         }
     }
 
@@ -289,7 +314,11 @@ public class Monster implements ItemHolder {
     /**
      * Variable referencing the maximum protection factor of a monster
      */
-    private int maxProtection = 40;
+    private int maxProtection = DEFAULT_MAX_PROTECTION;
+    /**
+     * Variable referencing the maximum protection factor a monster starts with.
+     */
+    final static int DEFAULT_MAX_PROTECTION = 40;
 
     /**
      * Returns the protection factor of a monster.
@@ -311,7 +340,22 @@ public class Monster implements ItemHolder {
      *
      */
     public boolean isValidProtection(int protection) {
-        if((protection >= MIN_PROTECTION) && (protection <= getMaxProtection())) {
+        return isValidProtection(protection, this.getMaxProtection());
+    }
+
+    /**
+     * A method to determine if the given protection is a valid protection for the given maximum protection.
+     * Shared by all representations of monsters, so they follow the same rules.
+     * @param protection
+     * @param maxProtection
+     *
+     * @return 	True if the given protection is larger than the minimum protection value,
+     * 			smaller than the given maximum protection value, and a prime number
+     * 			| result == (protection >= MIN_PROTECTION) && (protection <= maxProtection)
+     * 			| && (protection%i != 0)
+     */
+    static boolean isValidProtection(int protection, int maxProtection) {
+        if((protection >= MIN_PROTECTION) && (protection <= maxProtection)) {
             for(int i=2;i*i<=protection;i+=1) {
                 if(protection%i == 0)
                     return false;
@@ -401,7 +445,20 @@ public class Monster implements ItemHolder {
      * 			| 	then result == true
      */
     public boolean isValidHitpoints(int hitpoints) {
-        return (hitpoints <= getMaxHitpoints()) && (hitpoints >= 0);
+        return isValidHitpoints(hitpoints, getMaxHitpoints());
+    }
+
+    /**
+     * Checks if the given value for the current hitpoints is valid for the given maximum hitpoints.
+     * Shared by all representations of monsters, so they follow the same rules.
+     * @param hitpoints
+     * @param maxHitpoints
+     * @return	True if the value of the given current hitpoints is a natural number that is
+     * 			not larger than the given maximum hitpoints.
+     * 			| (hitpoints <= maxHitpoints) && (hitpoints >= 0)
+     */
+    static boolean isValidHitpoints(long hitpoints, int maxHitpoints) {
+        return (hitpoints <= maxHitpoints) && (hitpoints >= 0);
     }
 
     /**
@@ -425,6 +482,47 @@ public class Monster implements ItemHolder {
             throw new IllegalArgumentException();
     }
 
+    /**
+     * Method to lower the hitpoints of a monster by the given damage.
+     * Unlike setHitpoints(), this method never throws: hitpoints that would become invalid are set to zero.
+     *
+     * @param 	damage
+     * 			The number of hitpoints to take away.
+     * @return	KILL if the monster has no hitpoints left afterwards, HIT otherwise.
+     * 			| if (new.getHitpoints() == 0)
+     * 			|	then result == HitOutcome.KILL
+     * 			|	else result == HitOutcome.HIT
+     *
+     * @post	If the lowered hitpoints are valid, the hitpoints of the monster are lowered by the given damage.
+     * 			| if (isValidHitpoints(getHitpoints() - damage))
+     * 			|	then new.getHitpoints() == getHitpoints() - damage
+     *
+     * @post	If the lowered hitpoints are not valid, the hitpoints of the monster are set to zero.
+     * 			| if (!isValidHitpoints(getHitpoints() - damage))
+     * 			|	then new.getHitpoints() == 0
+     */
+    public HitOutcome applyDamage(int damage) {
+        this.hitpoints = hitpointsAfterDamage(this.hitpoints, this.maxHitpoints, damage);
+        return (this.hitpoints == 0) ? HitOutcome.KILL : HitOutcome.HIT;
+    }
+
+    /**
+     * Returns the hitpoints a monster has left after taking the given damage.
+     * Shared by all representations of monsters, so they follow the same rules.
+     * @param 	hitpoints
+     * 			The hitpoints before the damage.
+     * @param 	maxHitpoints
+     * @param 	damage
+     * @return	The lowered hitpoints if they are valid, zero otherwise.
+     * 			| if (isValidHitpoints(hitpoints - damage, maxHitpoints))
+     * 			|	then result == hitpoints - damage
+     * 			|	else result == 0
+     */
+    static int hitpointsAfterDamage(int hitpoints, int maxHitpoints, int damage) {
+        long remaining = (long) hitpoints - damage;
+        return isValidHitpoints(remaining, maxHitpoints) ? (int) remaining : 0;
+    }
+
     /**
      * Returns the value for the maximum hitpoints of the monster.
      * @return maxHitpoints
@@ -530,25 +628,93 @@ public class Monster implements ItemHolder {
      * @param DefendingMonster
      *        The monster that gets hit
      *
+     * @return	MISS if the hit does not land, otherwise the outcome of the damage dealt to the defending monster.
+     *
+     * @effect	The monster is hit with a roll drawn from the random generator of the current thread.
+     * 			| hitOtherMonster(DefendingMonster, ThreadLocalRandom.current())
+     */
+    public HitOutcome hitOtherMonster(Monster DefendingMonster){
+        return this.hitOtherMonster(DefendingMonster, ThreadLocalRandom.current());
+    }
+
+    /**
+     * A method to hit another monster with a roll drawn from the given random generator.
+     * Hits made with generators that produce the same numbers have the same outcome, so fights can be reproduced.
+     * @param DefendingMonster
+     *        The monster that gets hit
+     * @param random
+     *        The generator from which the roll of the hit is drawn.
+     * @return	MISS if the hit does not land, otherwise the outcome of the damage dealt to the defending monster.
+     *
+     * @effect	If the hit lands, the hitpoints of the defending monster are lowered by the hit damage
+     * 			of the attack profile of this monster as in the method applyDamage().
+     * 			| DefendingMonster.applyDamage(getAttackProfile().getHitDamage())
      */
-    public void hitOtherMonster(Monster DefendingMonster){
-        int randomNum = ThreadLocalRandom.current().nextInt(0, 31);
+    public HitOutcome hitOtherMonster(Monster DefendingMonster, RandomGenerator random){
+        if (lands(random.nextInt(0, NB_ROLLS), this.getHitpoints(), DefendingMonster.getProtection()))
+            return DefendingMonster.applyDamage(this.getAttackProfile().getHitDamage());
+        return HitOutcome.MISS;
+    }
+
+    /**
+     * Variable referencing the number of different rolls of a hit, which range from 0 up to and including 30.
+     */
+    final static int NB_ROLLS = 31;
+
+    /**
+     * Checks whether a hit with the given roll lands.
+     * Shared by all representations of monsters, so they follow the same rules.
+     * @param 	roll
+     * 			The roll of the hit.
+     * @param 	hitpoints
+     * 			The hitpoints of the attacking monster.
+     * @param 	protection
+     * 			The protection factor of the defending monster.
+     * @return	True if the battle value, the roll limited to the hitpoints of the attacker,
+     * 			is larger than the protection factor of the defender.
+     * 			| min(roll, hitpoints) > protection
+     */
+    static boolean lands(int roll, int hitpoints, int protection) {
         int battlevalue;
-        if (randomNum < this.getHitpoints()){
-            battlevalue = randomNum;
+        if (roll < hitpoints){
+            battlevalue = roll;
         } else {
-            battlevalue = this.getHitpoints();
+            battlevalue = hitpoints;
         }
-        if (battlevalue > DefendingMonster.getProtection()) {
-            try {
-                if (this.getEquipment()[1] instanceof Weapon)
-                    DefendingMonster.setHitpoints(DefendingMonster.getHitpoints() - (this.getDamage() + ((Weapon)this.getEquipment()[1]).getDamage() +(this.getStrength() - 5) / 3));
-                else
-                    DefendingMonster.setHitpoints(DefendingMonster.getHitpoints() - (this.getDamage() + (this.getStrength() - 5) / 3));
-            } catch (IllegalArgumentException e){
-                DefendingMonster.setHitpoints(0);
-            }
+        return battlevalue > protection;
+    }
+
+    /**
+     * Returns the damage of a hit by a monster with the given damage, strength and weapon damage.
+     * Shared by all representations of monsters, so they follow the same rules.
+     * @param 	damage
+     * @param 	strength
+     * @param 	weaponDamage
+     * 			The damage of the weapon in the combat anchor, or zero if there is none.
+     * @return	The damage plus the weapon damage plus the strength bonus.
+     * 			| damage + weaponDamage + (strength - 5) / 3
+     */
+    static int hitDamage(int damage, int strength, int weaponDamage) {
+        return damage + weaponDamage + (strength - 5) / 3;
+    }
+
+    /**
+     * Variable referencing the attack profile of a monster, or null if it has to be rebuilt.
+     */
+    private AttackProfile attackProfile;
+
+    /**
+     * Returns the attack profile of a monster, which holds the damage of its hits.
+     * @return	The profile built from the current damage, strength and combat weapon of the monster.
+     * 			| AttackProfile.of(this)
+     */
+    public AttackProfile getAttackProfile() {
+        AttackProfile profile = this.attackProfile;
+        if (profile == null) {
+            profile = AttackProfile.of(this);
+            this.attackProfile = profile;
         }
+        return profile;
     }
 
     //ANCHOR
@@ -565,6 +731,61 @@ public class Monster implements ItemHolder {
      */
     private Item[] equipment;
 
+    /**
+     * Variable referencing which anchors of a monster are occupied: bit i is set if and only if equipment[i] != null.
+     */
+    private BitSet occupiedAnchors = new BitSet();
+
+    /**
+     * Variable referencing, for every item in the equipment of a monster, the number of the anchor it is in.
+     */
+    private final IdentityHashMap<Item, Integer> anchorOf = new IdentityHashMap<>();
+
+    /**
+     * Variable referencing the number of items a monster has equipped.
+     */
+    private int nbEquippedItems;
+
+    /**
+     * Variable referencing the number of the anchor whose weapon a monster uses when hitting another monster.
+     */
+    private final static int COMBAT_ANCHOR = 1;
+
+    /**
+     * Variable referencing the weapon in the combat anchor of a monster, or null if that anchor does not hold a weapon.
+     */
+    private Weapon combatWeapon;
+
+    /**
+     * Variable referencing the weapons in the equipment of a monster, in the order of their anchors.
+     */
+    private final List<Weapon> equippedWeapons = new ArrayList<>();
+
+    /**
+     * Variable referencing the backpacks in the equipment of a monster, in the order of their anchors.
+     */
+    private final List<Backpack> equippedBackpacks = new ArrayList<>();
+
+    /**
+     * Variable referencing the purses in the equipment of a monster, in the order of their anchors.
+     */
+    private final List<Purse> equippedPurses = new ArrayList<>();
+
+    /**
+     * Variable referencing a read-only view of the weapons in the equipment of a monster.
+     */
+    private final List<Weapon> equippedWeaponsView = Collections.unmodifiableList(this.equippedWeapons);
+
+    /**
+     * Variable referencing a read-only view of the backpacks in the equipment of a monster.
+     */
+    private final List<Backpack> equippedBackpacksView = Collections.unmodifiableList(this.equippedBackpacks);
+
+    /**
+     * Variable referencing a read-only view of the purses in the equipment of a monster.
+     */
+    private final List<Purse> equippedPursesView = Collections.unmodifiableList(this.equippedPurses);
+
     /**
      * Returns equipment of a monster.
      * @return equipment
@@ -579,10 +800,140 @@ public class Monster implements ItemHolder {
      * Method to set the size of the equipment for a monster based on its number of anchors.
      * @post 	The equipment size of a monster will be equal to the number of anchors of a monster.
      * 			| new.getEquipment().length() = equipment.length()
+     *
+     * @post	All anchors of the monster are free.
+     * 			| new.getNbEquippedItems() == 0
+     *
+     * @post	The equipment load and value of the monster are zero.
+     * 			| new.getEquipmentLoad() == 0 && new.getEquipmentValue() == 0
      */
     //NOT TOO SURE ABOUT THIS DOCUMENTATION
     public void setEquipmentSize(){
         this.equipment = new Item[this.nbAnchors];
+        this.occupiedAnchors = new BitSet(this.nbAnchors);
+        this.anchorOf.clear();
+        this.equippedWeapons.clear();
+        this.equippedBackpacks.clear();
+        this.equippedPurses.clear();
+        this.combatWeapon = null;
+        this.attackProfile = null;
+        this.nbEquippedItems = 0;
+        this.equipmentLoad = 0;
+        this.equipmentValue = 0;
+    }
+
+    /**
+     * Method to put an item in a free anchor and record it in the occupied anchors.
+     * @param 	item
+     * @param 	anchorNb
+     *
+     * @post	The item is in the given anchor.
+     * 			| new.getEquipment()[anchorNb] == item && new.getAnchorNb(item) == anchorNb
+     *
+     * @post	The number of equipped items is increased by one.
+     * 			| new.getNbEquippedItems() == getNbEquippedItems() + 1
+     *
+     * @post	If the item is a weapon, backpack or purse, it is added to the equipped items of its type in the order of their anchors.
+     * 			| if (item instanceof Backpack)
+     * 			| 	then new.getEquippedBackpacks().contains(item)
+     */
+    private void occupyAnchor(Item item, int anchorNb) {
+        this.equipment[anchorNb] = item;
+        this.occupiedAnchors.set(anchorNb);
+        this.anchorOf.put(item, anchorNb);
+        this.nbEquippedItems++;
+        if (item instanceof Weapon) {
+            this.insertInAnchorOrder(this.equippedWeapons, (Weapon) item, anchorNb);
+            if (anchorNb == COMBAT_ANCHOR) {
+                this.combatWeapon = (Weapon) item;
+                this.attackProfile = null;
+            }
+        }
+        else if (item instanceof Backpack)
+            this.insertInAnchorOrder(this.equippedBackpacks, (Backpack) item, anchorNb);
+        else if (item instanceof Purse)
+            this.insertInAnchorOrder(this.equippedPurses, (Purse) item, anchorNb);
+    }
+
+    /**
+     * Method to add an item to a list of equipped items that is ordered by anchor number.
+     * @param 	items
+     * 			Equipped items, in the order of their anchors.
+     * @param 	item
+     * @param 	anchorNb
+     * 			The number of the anchor of the item.
+     *
+     * @post	The item is in the list, after all items in a lower anchor and before all items in a higher anchor.
+     */
+    private <T extends Item> void insertInAnchorOrder(List<T> items, T item, int anchorNb) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.anchorOf.get(items.get(middle)) < anchorNb)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        items.add(low, item);
+    }
+
+    /**
+     * Method to empty the anchor of an equipped item and record it as free.
+     * @param 	item
+     * @return	The number of the anchor the item was in.
+     *
+     * @post	The anchor the item was in is free.
+     * 			| new.getEquipment()[getAnchorNb(item)] == null && new.getAnchorNb(item) == -1
+     *
+     * @post	The number of equipped items is decreased by one.
+     * 			| new.getNbEquippedItems() == getNbEquippedItems() - 1
+     *
+     * @post	The item is no longer among the equipped items of its type.
+     * 			| !new.getEquippedWeapons().contains(item) && !new.getEquippedBackpacks().contains(item)
+     * 			| && !new.getEquippedPurses().contains(item)
+     */
+    private int freeAnchor(Item item) {
+        if (item instanceof Weapon)
+            this.equippedWeapons.remove(item);
+        else if (item instanceof Backpack)
+            this.equippedBackpacks.remove(item);
+        else if (item instanceof Purse)
+            this.equippedPurses.remove(item);
+        int anchorNb = this.anchorOf.remove(item);
+        if (anchorNb == COMBAT_ANCHOR) {
+            this.combatWeapon = null;
+            this.attackProfile = null;
+        }
+        this.equipment[anchorNb] = null;
+        this.occupiedAnchors.clear(anchorNb);
+        this.nbEquippedItems--;
+        return anchorNb;
+    }
+
+    /**
+     * Returns the number of the anchor the given item is in.
+     * @param 	item
+     * @return	The number of the anchor holding the item, or -1 if the item is not in the equipment of this monster.
+     * 			| if (hasAsEquipment(item))
+     * 			| 	then getEquipment()[result] == item
+     * 			| 	else result == -1
+     */
+    public int getAnchorNb(Item item) {
+        Integer anchorNb = this.anchorOf.get(item);
+        return (anchorNb == null) ? -1 : anchorNb;
+    }
+
+    /**
+     * Returns the number of the first anchor of a monster that is not occupied.
+     * @return	The lowest anchor number without equipment, or -1 if all anchors are occupied.
+     * 			| if (getNbFreeAnchors() > 0)
+     * 			| 	then getEquipment()[result] == null && for each i < result: getEquipment()[i] != null
+     * 			| 	else result == -1
+     */
+    public int getFirstFreeAnchor() {
+        int anchorNb = this.occupiedAnchors.nextClearBit(0);
+        return (anchorNb < this.nbAnchors) ? anchorNb : -1;
     }
 
     /**
@@ -597,15 +948,10 @@ public class Monster implements ItemHolder {
     /**
      * Returns number of items a monster has equipped.
      * @return Number of equipped items
-     * 			| equippedItems
+     * 			| nbEquippedItems
      */
     public int getNbEquippedItems() {
-        int equippedItems = 0;
-        for (Item equippedItem : equipment){
-            if (equippedItem != null)
-                equippedItems++;
-        }
-        return equippedItems;
+        return this.nbEquippedItems;
     }
 
     /**
@@ -635,23 +981,23 @@ public class Monster implements ItemHolder {
      * 			| this.equipment.contains(item)
      */
     public boolean hasAsEquipment(Item item) {
-        return (Arrays.asList(this.equipment).contains(item));
+        return this.anchorOf.containsKey(item);
     }
 
     /**
      * Checks if the monster can obtain an item in its equipment.
      * @param 	item
-     * @return 	True if the item does not have a current holder,
+     * @return 	True if the item can be carried and does not have a current holder,
      * 			the monster has at least one free anchor
      * 			and the weight of the item does not exceed the remaining carrying capacity of the monster.
-     * 			| (item.getHolder() == null) 
+     * 			| item.isCarriable() && (item.getHolder() == null) 
      * 			| && (this.getNbFreeAnchors() > 0)
      * 			| && (((this.getCarryingCapacity() - this.getEquipmentLoad()) >= item.getWeight()))
      * 
      * @note	"I can hold this item right now."
      */
     public boolean canObtain(Item item) {
-        return ((item.getHolder() == null) && (this.getNbFreeAnchors() > 0)) && (((this.getCarryingCapacity() - this.getEquipmentLoad()) >= item.getWeight()));
+        return (item.isCarriable() && (item.getHolder() == null) && (this.getNbFreeAnchors() > 0)) && (((this.getCarryingCapacity() - this.getEquipmentLoad()) >= item.getWeight()));
     }
     
     /**
@@ -663,9 +1009,19 @@ public class Monster implements ItemHolder {
      * @note	"I have enough carrying capacity to add this Item to my backpack"
      */
 	public boolean canEquip(Item item) {
-        return ((item != null) && ((this.getCarryingCapacity() - this.getEquipmentLoad()) >= item.getWeight()));
+        return ((item != null) && this.canCarry(item.getWeight()));
 	}
 
+    /**
+     * Checks if the monster has enough carrying capacity left for the given weight.
+     * @param 	weight
+     * @return 	True if the weight does not exceed the remaining carrying capacity of the monster.
+     * 			| (this.getCarryingCapacity() - this.getEquipmentLoad()) >= weight
+     */
+    boolean canCarry(float weight) {
+        return ((this.getCarryingCapacity() - this.equipmentLoad) >= weight);
+    }
+
     //no method to equip in a specific spot
     /**
      * Method to add an item to a monsters equipment.
@@ -675,23 +1031,19 @@ public class Monster implements ItemHolder {
      * 			| 	then equippedItem = item
      *          |    	 item.setHolder(this)
      *
-     * @effect	The equipment load of the monster will be calculated as in the method calculateEquipmentLoad()
-     * 			| calculateEquipmentLoad()
+     * @effect	The weight and value of the item are added to the equipment load and value of the monster
+     * 			as in the method equipmentChanged()
+     * 			| equipmentChanged(item.getWeight(), item.getValue())
      *
      * @throws IllegalArgumentException
      * 			The given item cannot be equipped.
      * 			| canEquip(item) == false
      */
     public void equip(Item item) throws IllegalArgumentException {
-        this.calculateEquipmentLoad();
         if(canObtain(item) == true) {
-            for (Item equippedItem : equipment){
-                if (equippedItem == null) {
-                    equippedItem = item;
-                    item.setHolder(this);
-                    break;
-                }
-            }
+            this.occupyAnchor(item, this.getFirstFreeAnchor());
+            item.setHolder(this);
+            this.equipmentChanged(item.getWeight(), item.getValue());
         }
         else
             throw new IllegalArgumentException();
@@ -708,8 +1060,9 @@ public class Monster implements ItemHolder {
      * 			|	then equipment[anchorNb] = item
      *         			 item.setHolder(this)
      *
-     * @effect	The equipment load of the monster will be calculated as in the method calculateEquipmentLoad()
-     * 			| calculateEquipmentLoad()
+     * @effect	The weight and value of the item are added to the equipment load and value of the monster
+     * 			as in the method equipmentChanged()
+     * 			| equipmentChanged(item.getWeight(), item.getValue())
      * 
      * @throws	IndexOutOfBoundsException
      * 			The given anchorNb is larger than the size of the array or negative.
@@ -725,14 +1078,14 @@ public class Monster implements ItemHolder {
      * 
      */
     public void equipInAnchor(Item item, int anchorNb) throws IllegalArgumentException, ArrayIndexOutOfBoundsException {
-        this.calculateEquipmentLoad();
         if((anchorNb > this.nbAnchors - 1) || (anchorNb < 0)) {
             throw new ArrayIndexOutOfBoundsException();
         }
         else if(canObtain(item)) {
-            if(equipment[anchorNb] == null){
-                equipment[anchorNb] = item;
+            if(!this.occupiedAnchors.get(anchorNb)){
+                this.occupyAnchor(item, anchorNb);
                 item.setHolder(this);
+                this.equipmentChanged(item.getWeight(), item.getValue());
             } else
             	throw new IllegalArgumentException("Cannot equip in achor that is occupied.");
         } else
@@ -749,8 +1102,9 @@ public class Monster implements ItemHolder {
      * 			|	then equipment[i] = null
      *      	|		 item.setHolder(null)
      *
-     * @effect	The equipment load of the monster will be calculated as in the method calculateEquipmentLoad()
-     * 			| calculateEquipmentLoad()
+     * @effect	The weight and value of the item are subtracted from the equipment load and value of the monster
+     * 			as in the method equipmentChanged()
+     * 			| equipmentChanged(-item.getWeight(), -item.getValue())
      *
      * @throws IllegalArgumentException
      * 			The given item is not equipped by the monster.
@@ -763,11 +1117,10 @@ public class Monster implements ItemHolder {
     public void unequip(Item item) throws IllegalArgumentException, NullPointerException {
         if(item == null)
             throw new NullPointerException();
-        else if(Arrays.asList(this.equipment).contains(item) == true) {
-            int i = Arrays.asList(this.equipment).indexOf(item);
-            equipment[i] = null;
+        else if(this.hasAsEquipment(item)) {
+            this.freeAnchor(item);
             item.setHolder(null);
-            this.calculateEquipmentLoad();
+            this.equipmentChanged(-item.getWeight(), -item.getValue());
         } else
             throw new IllegalArgumentException();
     }
@@ -796,45 +1149,77 @@ public class Monster implements ItemHolder {
      * 			item == null
      */
     public void swapItem(Item itemToUnequip, Item itemToEquip) throws IllegalArgumentException, NullPointerException {
-        int i = Arrays.asList(this.equipment).indexOf(itemToUnequip);
+        int i = this.getAnchorNb(itemToUnequip);
         unequip(itemToUnequip);
         equipInAnchor(itemToEquip, i);
     }
     
     /**
-     * Returns all IDs of items a monster has in its equipment or backpacks
+     * Returns all IDs of items a monster has in its equipment or backpacks, at any depth.
      * @return  allItems
-     * 			
+     * 			| streamAllItemIDs().boxed().collect(toList())
      */
     public List<Long> getAllItemIDs(){
-        List<Long> allItems = new ArrayList<>();
-        for (Item item : equipment){
-            if (item != null)
-                allItems.add(item.getID());
-        }
-        for (Backpack bp : this.getEquippedBackpacks()){
-            for (Item item : bp.getContents()){
-                allItems.add(item.getID());
-            }
-        }
-        return allItems;
+        return this.streamAllItemIDs().boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Returns all IDs of items a monster has in its equipment or backpacks, at any depth, without boxing.
+     * @return	An array with the ID of every item visited by streamAllItems().
+     * 			| streamAllItemIDs().toArray()
+     */
+    public long[] getAllItemIDArray(){
+        return this.streamAllItemIDs().toArray();
+    }
+
+    /**
+     * Returns a lazy stream of the IDs of all items a monster has in its equipment or backpacks, at any depth.
+     * @return	The IDs of the items visited by streamAllItems().
+     * 			| streamAllItems().mapToLong(Item::getID)
+     */
+    public LongStream streamAllItemIDs(){
+        return this.streamAllItems().mapToLong(Item::getID);
+    }
+
+    /**
+     * Returns a lazy, depth-first stream of all items a monster has in its equipment or backpacks, at any depth.
+     * The stream can be made parallel, in which case the items are split over the available cores.
+     * @return	A stream over a HeldItemSpliterator of this monster.
+     * 			| StreamSupport.stream(HeldItemSpliterator.of(this), false)
+     */
+    public Stream<Item> streamAllItems(){
+        return StreamSupport.stream(HeldItemSpliterator.of(this), false);
+    }
+
+    /**
+     * Returns a lazy, depth-first stream of all items the given monsters have in their equipment or backpacks, at any depth.
+     * The stream can be made parallel, in which case the items of the whole population are split over the available cores.
+     * @param	monsters
+     * @return	A stream over a HeldItemSpliterator of the given monsters.
+     * 			| StreamSupport.stream(HeldItemSpliterator.of(monsters), false)
+     */
+    public static Stream<Item> streamAllItems(Collection<Monster> monsters){
+        return StreamSupport.stream(HeldItemSpliterator.of(monsters), false);
     }
     
     /**
-     * Total weight of the items a monster has in its equipment.
+     * Total weight of the items a monster has in its equipment, including everything inside its backpacks.
+     * Kept up to date by the changes reported through equipmentChanged(), and summed as a double
+     * so that many small changes do not drift.
      */
-    private float equipmentLoad;
+    private double equipmentLoad;
 
     /**
      * Returns current equipment load of a monster.
      * @return equipmentLoad
      */
     public float getEquipmentLoad(){
-        return this.equipmentLoad;
+        return (float) this.equipmentLoad;
     }
 
     /**
-     * Method to calculate the total weight of the items a monster has in its equipment
+     * Method to recalculate the total weight of the items a monster has in its equipment from scratch.
+     * The equipment load is always kept up to date, so this is only needed to check the running total.
      * @post	The equipment load of a Monster will be equal to the sum of the weights of each item in a Monster's equipment,
      * 			if the item is not null
      * 			| for(Item item: this.equipment)
@@ -842,7 +1227,7 @@ public class Monster implements ItemHolder {
      *			|		then equipmentLoad += item.getWeight();
      */
     public void calculateEquipmentLoad() {
-        float equipmentLoad = 0;
+        double equipmentLoad = 0;
         for(Item item: this.equipment) {
             if(item != null)
                 equipmentLoad += item.getWeight();
@@ -851,7 +1236,8 @@ public class Monster implements ItemHolder {
     }
 
     /**
-     * Total value of the items a monster has in its equipment.
+     * Total value of the items a monster has in its equipment, including everything inside its backpacks and purses.
+     * Kept up to date by the changes reported through equipmentChanged().
      */
     private double equipmentValue;
 
@@ -864,7 +1250,8 @@ public class Monster implements ItemHolder {
     }
 
     /**
-     * Method to calculate the total value of the items a monster has in its equipment
+     * Method to recalculate the total value of the items a monster has in its equipment from scratch.
+     * The equipment value is always kept up to date, so this is only needed to check the running total.
      * @post	The equipment value of a Monster will be equal to the sum of the values of each item in a Monster's equipment,
      * 			if the item is not null
      * 			| for(Item item: this.equipment)
@@ -880,6 +1267,26 @@ public class Monster implements ItemHolder {
         this.equipmentValue = value;
     }
 
+    /**
+     * Method to update the equipment load and value of a monster after a change somewhere in its equipment.
+     * Items in the anchors of the monster report their changes here, and so do backpacks and purses
+     * when something inside them changes, so the totals never have to be recalculated.
+     * @param 	weightDelta
+     * 			The change in weight of the equipment.
+     * @param 	valueDelta
+     * 			The change in value of the equipment.
+     *
+     * @post	The equipment load is increased by the given change in weight.
+     * 			| new.getEquipmentLoad() == getEquipmentLoad() + weightDelta
+     *
+     * @post	The equipment value is increased by the given change in value.
+     * 			| new.getEquipmentValue() == getEquipmentValue() + valueDelta
+     */
+    void equipmentChanged(float weightDelta, double valueDelta) {
+        this.equipmentLoad += weightDelta;
+        this.equipmentValue += valueDelta;
+    }
+
     /**
      * Method to destroy a weapon the monster is carrying.
      * @param 	weapon
@@ -890,6 +1297,15 @@ public class Monster implements ItemHolder {
      * 			| 	then equipment[i] = null
      * 			|	and weapon.setHolder(null)
      *
+     * @effect	If the weapon is carried by the monster, its weight and value are subtracted from the equipment load and value
+     * 			of the monster as in the method equipmentChanged()
+     * 			| if this.equipment.contains(weapon)
+     * 			| 	then equipmentChanged(-weapon.getWeight(), -weapon.getValue())
+     *
+     * @effect	If the weapon is carried by the monster, its ID is given back as in the method releaseID() in Weapon.
+     * 			| if this.equipment.contains(weapon)
+     * 			| 	then weapon.releaseID()
+     *
      * @throws 	IllegalArgumentException
      * 			The weapon is not in the equipment of the monster.
      * 			this.equipment.contains(weapon) == false
@@ -902,35 +1318,64 @@ public class Monster implements ItemHolder {
     public void destroyWeapon(Weapon weapon) throws IllegalArgumentException, NullPointerException {
         if(weapon == null)
             throw new NullPointerException();
-        else if(Arrays.asList(this.equipment).contains(weapon) == true) {
+        else if(this.hasAsEquipment(weapon)) {
+            this.freeAnchor(weapon);
             weapon.setHolder(null);
-            int i = Arrays.asList(this.equipment).indexOf(weapon);
-            equipment[i] = null;
-            this.calculateEquipmentLoad();
+            this.equipmentChanged(-weapon.getWeight(), -weapon.getValue());
+            weapon.releaseID();
         } else {
             throw new IllegalArgumentException();
         }
     }
 
     /**
-     * Method to add backpacks in the equipment to a list of equipped backpacks.
-     * @return A list of equipped backpacks
-     * 			equippedBackpacks
-     *
-     * @post	If an item in the equipment of a Monster is a backpack
-     * 			then the backpack is added to the list of equipped backpacks.
+     * Returns the backpacks in the equipment of a monster.
+     * @return	A read-only view of the equipped backpacks, in the order of their anchors.
+     * 			The view follows later changes to the equipment.
      * 			| for (Item item : equipment)
      *      	|	if (item instanceof Backpack)
-     *          |		then equippedBackpacks.add((Backpack)item)
+     *          |		then result.contains((Backpack)item)
      *
+     * @note	This method used to return a new ArrayList<Backpack>. It now returns a List<Backpack> view, so callers that
+     * 			need an ArrayList or want to modify the result must copy it, e.g. new ArrayList<>(getEquippedBackpacks()).
      */
-    public ArrayList<Backpack> getEquippedBackpacks(){
-        ArrayList<Backpack> equippedBackpacks = new ArrayList<>();
-        for (Item item : equipment){
-            if (item instanceof Backpack)
-                equippedBackpacks.add((Backpack)item);
-        }
-        return equippedBackpacks;
+    public List<Backpack> getEquippedBackpacks(){
+        return this.equippedBackpacksView;
+    }
+
+    /**
+     * Returns the weapons in the equipment of a monster.
+     * @return	A read-only view of the equipped weapons, in the order of their anchors.
+     * 			The view follows later changes to the equipment.
+     * 			| for (Item item : equipment)
+     *      	|	if (item instanceof Weapon)
+     *          |		then result.contains((Weapon)item)
+     */
+    public List<Weapon> getEquippedWeapons(){
+        return this.equippedWeaponsView;
+    }
+
+    /**
+     * Returns the purses in the equipment of a monster.
+     * @return	A read-only view of the equipped purses, in the order of their anchors.
+     * 			The view follows later changes to the equipment.
+     * 			| for (Item item : equipment)
+     *      	|	if (item instanceof Purse)
+     *          |		then result.contains((Purse)item)
+     */
+    public List<Purse> getEquippedPurses(){
+        return this.equippedPursesView;
+    }
+
+    /**
+     * Returns the weapon a monster uses when hitting another monster.
+     * @return	The weapon in the combat anchor, or null if that anchor does not hold a weapon.
+     * 			| if (equipment[COMBAT_ANCHOR] instanceof Weapon)
+     * 			| 	then result == equipment[COMBAT_ANCHOR]
+     * 			| 	else result == null
+     */
+    public Weapon getCombatWeapon(){
+        return this.combatWeapon;
     }
 
     /**
@@ -947,8 +1392,8 @@ public class Monster implements ItemHolder {
      * @effect Adding the backpack uses the method equip in Backpack
      * 			| bp.equip(item)
      *
-     * @effect	The equipment load of the monster will be calculated as in the method calculateEquipmentLoad()
-     * 			| calculateEquipmentLoad()
+     * @effect	The backpack reports the added weight and value to this monster as in the method equipmentChanged()
+     * 			| equipmentChanged(item.getWeight(), item.getValue())
      *
      * @throws IllegalArgumentException
      * 			The item cannot be obtained by the monster
@@ -972,6 +1417,5 @@ public class Monster implements ItemHolder {
             }
         } else
             throw new IllegalArgumentException();
-    calculateEquipmentLoad();
     }
   }
@@ -155,6 +155,15 @@ public class MonsterTest {
         assertFalse(monsterLegal.isValidHitpoints(-5)); //Less than 0
     }
 
+    @Test
+    public final void applyDamage_LegalCase() {
+        assertEquals(HitOutcome.HIT, monsterLegal.applyDamage(4));
+        assertEquals(6, monsterLegal.getHitpoints());
+        assertEquals(HitOutcome.KILL, monsterLegal.applyDamage(50));
+        assertEquals(0, monsterLegal.getHitpoints());
+        assertTrue(monsterLegal.hasDied());
+    }
+
     @Test
     public final void getMaxHitpoints_SingleCase() {
         assertEquals(10, monsterLegal.getMaxHitpoints());
@@ -222,6 +231,61 @@ public class MonsterTest {
     	assertThrows(IndexOutOfBoundsException.class, () -> monsterLegal.equipInAnchor(caladbolg, -4));
     }
     
+    @Test
+    public final void equip_FirstFreeAnchorCase() {
+    	Weapon caladbolg = new Weapon(5,5,5, null);
+    	Weapon HMSdivinity = new Weapon(5,5,5, null);
+    	assertEquals(2, monsterLegal.getNbEquippedItems());
+    	assertEquals(1, monsterLegal.getFirstFreeAnchor());
+    	monsterLegal.equip(caladbolg);
+    	assertEquals(1, monsterLegal.getAnchorNb(caladbolg));
+    	monsterLegal.equip(HMSdivinity);
+    	assertEquals(3, monsterLegal.getAnchorNb(HMSdivinity));
+    	assertEquals(0, monsterLegal.getNbFreeAnchors());
+    	assertEquals(-1, monsterLegal.getFirstFreeAnchor());
+    	
+    	monsterLegal.unequip(caladbolg);
+    	assertEquals(-1, monsterLegal.getAnchorNb(caladbolg));
+    	assertEquals(1, monsterLegal.getFirstFreeAnchor());
+    	assertEquals(3, monsterLegal.getNbEquippedItems());
+    }
+    
+    @Test
+    public final void getEquippedWeapons_ViewCase() {
+    	Weapon caladbolg = new Weapon(5,5,5, null);
+    	Backpack satchel = new Backpack(113, 1, 1, 5, null);
+    	assertEquals(1, monsterLegal.getEquippedWeapons().size());
+    	assertEquals(null, monsterLegal.getCombatWeapon());
+    	
+    	monsterLegal.equipInAnchor(satchel, 3);
+    	monsterLegal.equipInAnchor(caladbolg, 1);
+    	assertEquals(caladbolg, monsterLegal.getEquippedWeapons().get(1));
+    	assertEquals(caladbolg, monsterLegal.getCombatWeapon());
+    	assertEquals(satchel, monsterLegal.getEquippedBackpacks().get(1));
+    	assertTrue(monsterLegal.getEquippedPurses().isEmpty());
+    	assertThrows(UnsupportedOperationException.class, () -> monsterLegal.getEquippedBackpacks().clear());
+    	
+    	monsterLegal.unequip(caladbolg);
+    	assertEquals(null, monsterLegal.getCombatWeapon());
+    	assertEquals(1, monsterLegal.getEquippedWeapons().size());
+    }
+    
+    @Test
+    public final void getAttackProfile_RebuildCase() {
+    	Weapon caladbolg = new Weapon(5,5,5, null);
+    	AttackProfile profile = monsterLegal.getAttackProfile();
+    	assertEquals(5 + (100 - 5) / 3, profile.getBaseDamage());
+    	assertEquals(0, profile.getWeaponBonus());
+    	assertSame(profile, monsterLegal.getAttackProfile());
+    	
+    	monsterLegal.equipInAnchor(caladbolg, 1);
+    	assertEquals(5, monsterLegal.getAttackProfile().getWeaponBonus());
+    	monsterLegal.setDamage(7);
+    	assertEquals(7 + (100 - 5) / 3 + 5, monsterLegal.getAttackProfile().getHitDamage());
+    	monsterLegal.unequip(caladbolg);
+    	assertEquals(0, monsterLegal.getAttackProfile().getWeaponBonus());
+    }
+    
     @Test
     public final void unequip_LegalCase() {
     	Weapon caladbolg = new Weapon(5,5,5, null);
@@ -260,6 +324,26 @@ public class MonsterTest {
     	assertEquals(25, monsterLegal.getEquipmentValue(), 0.25);
     }
     
+    @Test
+    public final void getEquipmentLoad_NestedCase() {
+    	Purse purse = new Purse(3, 0, 1, null, 10, 0);
+    	Purse otherPurse = new Purse(5, 0, 1, null, 10, 4);
+    	Weapon dagger = new Weapon(1, 2, 1, null);
+    	assertEquals(10, monsterLegal.getEquipmentLoad(), 0.25);
+    	assertEquals(25, monsterLegal.getEquipmentValue(), 0.25);
+    	
+    	backpackLegal.equip(dagger);
+    	monsterLegal.equipInAnchor(purse, 3);
+    	otherPurse.transferDukats(purse, 2);
+    	assertEquals(112, monsterLegal.getEquipmentLoad(), 0.25);
+    	assertEquals(29, monsterLegal.getEquipmentValue(), 0.25);
+    	
+    	monsterLegal.unequip(backpackLegal);
+    	assertEquals(105, monsterLegal.getEquipmentLoad(), 0.25);
+    	monsterLegal.calculateEquipmentLoad();
+    	assertEquals(105, monsterLegal.getEquipmentLoad(), 0.25);
+    }
+    
     @Test
     public final void storeInBackpack_LegalCase() {
     	Weapon caladbolg = new Weapon(5,1,5, null);
@@ -274,6 +358,32 @@ public class MonsterTest {
     	assertThrows(IllegalArgumentException.class, () -> monsterLegal.storeInBackpack(caladbolg)); //Too heavy
     }
     
+    @Test
+    public final void getAllItemIDs_NestedCase() {
+    	Backpack inner = new Backpack(7, 0, 1, 5, null);
+    	Weapon dagger = new Weapon(1, 0, 1, null);
+    	backpackLegal.equip(inner);
+    	inner.equip(dagger);
+    	assertEquals(5, monsterLegal.getAllItemIDs().size());
+    	assertTrue(monsterLegal.getAllItemIDs().contains(dagger.getID()));
+    	assertEquals(5, monsterLegal.streamAllItems().parallel().count());
+    }
+    
+    @Test
+    public final void getIndirectHolder_NestedCase() {
+    	Backpack inner = new Backpack(7, 0, 1, 5, null);
+    	Weapon dagger = new Weapon(1, 0, 1, null);
+    	inner.equip(dagger);
+    	assertEquals(null, Item.getIndirectHolder(dagger));
+    	
+    	backpackLegal.equip(inner);
+    	assertEquals(monsterLegal, Item.getIndirectHolder(dagger));
+    	
+    	monsterLegal.unequip(backpackLegal);
+    	assertEquals(null, Item.getIndirectHolder(dagger));
+    	assertEquals(backpackLegal, dagger.getRootHolder());
+    }
+    
     @Test
     public final void destroyWeapon_LegalCase() {
     	Weapon caladbolg = new Weapon(5,1,5, null);
@@ -288,6 +398,5 @@ public class MonsterTest {
     	assertThrows(IllegalArgumentException.class, () -> monsterLegal.destroyWeapon(caladbolg)); //Not in equipment
     	assertThrows(NullPointerException.class, () -> monsterLegal.destroyWeapon(null)); //Null
     }
-    
 
 }